@@ -1,11 +1,26 @@
 package Zabgu;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Реализация самобалансирующегося AVL-дерева.
  * Поддерживает основные операции: вставка, удаление, поиск, обход.
  * Гарантирует время выполнения операций O(log n) за счет автоматической балансировки.
+ * Каждый узел хранит размер своего поддерева, что позволяет за O(log n) находить
+ * k-й по порядку ключ (select) и позицию ключа (rank), а размер дерева - за O(1).
+ * Порядок ключей задается естественным упорядочиванием или переданным Comparator;
+ * при спуске по дереву на каждом уровне выполняется ровно одно сравнение.
+ * Операции split/join и основанные на них union, intersection и difference
+ * переиспользуют узлы и выполняются за O(m log(n/m + 1)), в том числе параллельно.
  *
  * @param <T> тип элементов дерева, должен реализовывать Comparable<T>
  */
@@ -13,11 +28,12 @@ class AVLTree<T extends Comparable<T>> implements Iterable<T> {
 
     /**
      * Внутренний класс для представления узла дерева.
-     * Содержит ключ, высоту поддерева и ссылки на потомков.
+     * Содержит ключ, высоту и размер поддерева и ссылки на потомков.
      */
     private class Node {
         T key;
         int height;
+        int size;                   // Количество узлов в поддереве
         Node left, right;
 
         /**
@@ -27,10 +43,113 @@ class AVLTree<T extends Comparable<T>> implements Iterable<T> {
         Node(T key) {
             this.key = key;
             this.height = 1;        // Высота нового узла всегда 1
+            this.size = 1;
         }
     }
 
     private Node root;              // Корень дерева
+    private final Comparator<? super T> comparator;    // Порядок ключей (null - естественный порядок)
+    private static final int PARALLEL_THRESHOLD = 1 << 13;  // Размер задачи, ниже которого операции над множествами не распараллеливаются
+
+    /**
+     * Создает пустое дерево с естественным порядком ключей.
+     */
+    public AVLTree() {
+        this(null);
+    }
+
+    /**
+     * Создает пустое дерево с заданным порядком ключей.
+     * @param comparator функция сравнения ключей (null - естественный порядок compareTo())
+     */
+    public AVLTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Строит идеально сбалансированное дерево из строго возрастающей последовательности за O(n).
+     * @param keys ключи в порядке возрастания без повторов
+     * @return новое дерево с естественным порядком ключей
+     * @throws IllegalArgumentException если ключи не упорядочены строго по возрастанию
+     */
+    public static <T extends Comparable<T>> AVLTree<T> fromSorted(Iterable<? extends T> keys) {
+        return fromSorted(keys, null);
+    }
+
+    /**
+     * Строит идеально сбалансированное дерево из последовательности, строго возрастающей
+     * в порядке comparator, за O(n).
+     * @param keys ключи в порядке возрастания без повторов
+     * @param comparator функция сравнения ключей (null - естественный порядок)
+     * @return новое дерево с заданным порядком ключей
+     * @throws IllegalArgumentException если ключи не упорядочены строго по возрастанию
+     */
+    public static <T extends Comparable<T>> AVLTree<T> fromSorted(Iterable<? extends T> keys,
+                                                                Comparator<? super T> comparator) {
+        List<T> list = new ArrayList<>();
+        for (T key : keys) {
+            list.add(key);
+        }
+        AVLTree<T> tree = new AVLTree<T>(comparator);
+        tree.build(list);
+        return tree;
+    }
+
+    /**
+     * Строит идеально сбалансированное дерево из упорядоченного массива за O(n).
+     * @param keys массив ключей в порядке возрастания без повторов
+     * @return новое дерево с естественным порядком ключей
+     * @throws IllegalArgumentException если ключи не упорядочены строго по возрастанию
+     */
+    public static <T extends Comparable<T>> AVLTree<T> fromSortedArray(T[] keys) {
+        AVLTree<T> tree = new AVLTree<>();
+        tree.build(Arrays.asList(keys));
+        return tree;
+    }
+
+    /**
+     * Проверяет порядок ключей и строит из них дерево вместо текущего.
+     * @param keys ключи в порядке возрастания без повторов
+     * @throws IllegalArgumentException если ключи не упорядочены строго по возрастанию
+     */
+    private void build(List<? extends T> keys) {
+        for (int i = 1; i < keys.size(); i++) {
+            if (compare(keys.get(i - 1), keys.get(i)) >= 0) {
+                throw new IllegalArgumentException("Ключи должны быть строго упорядочены по возрастанию (позиция " + i + ")");
+            }
+        }
+        root = build(keys, 0, keys.size());
+    }
+
+    /**
+     * Рекурсивно строит поддерево из ключей [from, to): средний ключ становится корнем.
+     * Глубина рекурсии - O(log n); высоты и размеры вычисляются по потомкам.
+     * @param keys упорядоченные ключи
+     * @param from начало диапазона (включительно)
+     * @param to конец диапазона (не включительно)
+     * @return корень поддерева или null для пустого диапазона
+     */
+    private Node build(List<? extends T> keys, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node node = new Node(keys.get(mid));
+        node.left = build(keys, from, mid);
+        node.right = build(keys, mid + 1, to);
+        update(node);
+        return node;
+    }
+
+    /**
+     * Сравнивает два ключа в порядке дерева.
+     * @param a первый ключ
+     * @param b второй ключ
+     * @return отрицательное число, ноль или положительное число, если a меньше, равен или больше b
+     */
+    private int compare(T a, T b) {
+        return (comparator == null) ? a.compareTo(b) : comparator.compare(a, b);
+    }
 
     /**
      * Возвращает корень дерева в виде TreeNode.
@@ -57,123 +176,174 @@ class AVLTree<T extends Comparable<T>> implements Iterable<T> {
 
     /**
      * Возвращает итератор для обхода дерева в порядке in-order.
+     * Итератор обходит узлы дерева напрямую, без копирования в TreeNode:
+     * создание итератора требует O(log n) времени и памяти под стек.
      * @return итератор элементов дерева
      */
     @Override
     public Iterator<T> iterator() {
-        return new BinSTreeIterator<>(getRoot());
+        return new InOrderIterator(null, null);
     }
 
     /**
      * Вставляет новый ключ в дерево.
+     * Спуск выполняется циклом с сохранением пути; затем путь проходится снизу вверх.
+     * Высоты пересчитываются и узлы балансируются только пока высота поддерева меняется
+     * (после поворота или на первом узле с неизменной высотой это прекращается),
+     * выше изменяются лишь размеры поддеревьев. Ссылка родителя перезаписывается
+     * только при повороте.
      * @param key ключ для вставки
      */
     public void insert(T key) {
-        root = insert(root, key);
-    }
-
-    /**
-     * Рекурсивная вставка ключа в поддерево.
-     * @param node корень поддерева
-     * @param key ключ для вставки
-     * @return новый корень поддерева после вставки и балансировки
-     */
-    private Node insert(Node node, T key) {
-        if (node == null) {
-            return new Node(key);
+        if (root == null) {
+            root = new Node(key);
+            return;
         }
-        // Рекурсивная вставка в левое или правое поддерево
-        if (key.compareTo(node.key) < 0) {
-            node.left = insert(node.left, key);
-        } else if (key.compareTo(node.key) > 0) {
-            node.right = insert(node.right, key);
-        } else {
-            return node;                            // Дубликаты не допускаются
+        Node[] path = newPath(root.height);
+        int depth = 0;
+        Node node = root;
+        while (true) {
+            int cmp = compare(key, node.key);
+            if (cmp == 0) {
+                return;                             // Дубликаты не допускаются
+            }
+            path[depth++] = node;
+            Node child = (cmp < 0) ? node.left : node.right;
+            if (child == null) {
+                if (cmp < 0) {
+                    node.left = new Node(key);
+                } else {
+                    node.right = new Node(key);
+                }
+                break;
+            }
+            node = child;
+        }
+
+        boolean heightChanging = true;
+        for (int i = depth - 1; i >= 0; i--) {
+            node = path[i];
+            node.size++;
+            if (!heightChanging) {
+                continue;
+            }
+            int oldHeight = node.height;
+            node.height = 1 + Math.max(height(node.left), height(node.right));
+            Node balanced = balance(node);
+            if (balanced != node) {
+                // После поворота при вставке высота поддерева возвращается к прежней
+                replaceChild(i > 0 ? path[i - 1] : null, node, balanced);
+                heightChanging = false;
+            } else if (node.height == oldHeight) {
+                heightChanging = false;
+            }
         }
-        // Обновление высоты и балансировка
-        node.height = 1 + Math.max(height(node.left), height(node.right));
-        return balance(node);
     }
 
     /**
      * Удаляет ключ из дерева.
+     * Путь до удаляемого узла (а для узла с двумя потомками - до его преемника)
+     * сохраняется при спуске и проходится снизу вверх так же, как при вставке:
+     * балансировка прекращается, как только высота поддерева перестает меняться.
      * @param key ключ для удаления
      */
     public void delete(T key) {
-        root = delete(root, key);
-    }
-
-    /**
-     * Рекурсивное удаление ключа из поддерева.
-     * @param node корень поддерева
-     * @param key ключ для удаления
-     * @return новый корень поддерева после удаления и балансировки
-     */
-    private Node delete(Node node, T key) {
+        if (root == null) {
+            return;
+        }
+        Node[] path = newPath(root.height);
+        int depth = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp == 0) {
+                break;
+            }
+            path[depth++] = node;
+            node = (cmp < 0) ? node.left : node.right;
+        }
         if (node == null) {
-            return null;
+            return;                                 // Ключ не найден
         }
 
-        // Поиск узла для удаления
-        if (key.compareTo(node.key) < 0) {
-            node.left = delete(node.left, key);
-        } else if (key.compareTo(node.key) > 0) {
-            node.right = delete(node.right, key);
-        } else {
+        // Узел с двумя потомками получает ключ преемника, удаляется сам преемник
+        if (node.left != null && node.right != null) {
+            path[depth++] = node;
+            Node successor = node.right;
+            while (successor.left != null) {
+                path[depth++] = successor;
+                successor = successor.left;
+            }
+            node.key = successor.key;
+            node = successor;
+        }
 
-            // Узел с одним или без потомков
-            if (node.left == null || node.right == null) {
-                Node temp = (node.left != null) ? node.left : node.right;
-                if (temp == null) {
-                    temp = node;
-                    node = null;
-                } else {
-                    node = temp;
-                }
-            } else {
+        // У удаляемого узла не больше одного потомка
+        Node child = (node.left != null) ? node.left : node.right;
+        replaceChild(depth > 0 ? path[depth - 1] : null, node, child);
 
-                // Узел с двумя потомками
-                Node temp = minValueNode(node.right);
-                node.key = temp.key;
-                node.right = delete(node.right, temp.key);
+        boolean heightChanging = true;
+        for (int i = depth - 1; i >= 0; i--) {
+            node = path[i];
+            node.size--;
+            if (!heightChanging) {
+                continue;
             }
+            int oldHeight = node.height;
+            node.height = 1 + Math.max(height(node.left), height(node.right));
+            Node balanced = balance(node);
+            if (balanced != node) {
+                replaceChild(i > 0 ? path[i - 1] : null, node, balanced);
+            }
+            // При удалении поворот может уменьшить высоту, поэтому сравнивается итоговая
+            heightChanging = balanced.height != oldHeight;
         }
-        if (node == null) {
-            return null;
-        }
-
-        // Обновление высоты и балансировка
-        node.height = 1 + Math.max(height(node.left), height(node.right));
-        return balance(node);
     }
 
+    /**
+     * Создает массив для пути от корня (не длиннее высоты дерева).
+     * @param length длина массива
+     * @return пустой массив узлов
+     */
+    @SuppressWarnings("unchecked")
+    private Node[] newPath(int length) {
+        return (Node[]) new AVLTree<?>.Node[length];
+    }
 
     /**
-     * Проверяет наличие ключа в дереве.
-     * @param key искомый ключ
-     * @return true если ключ найден, иначе false
+     * Заменяет потомка узла (или корень дерева, если родителя нет).
+     * @param parent родитель или null для корня
+     * @param oldChild заменяемый потомок
+     * @param newChild новый потомок
      */
-    public boolean contains(T key) {
-        return contains(root, key);
+    private void replaceChild(Node parent, Node oldChild, Node newChild) {
+        if (parent == null) {
+            root = newChild;
+        } else if (parent.left == oldChild) {
+            parent.left = newChild;
+        } else {
+            parent.right = newChild;
+        }
     }
 
     /**
-     * Рекурсивный поиск ключа в поддереве.
-     * @param node корень поддерева
+     * Проверяет наличие ключа в дереве.
      * @param key искомый ключ
      * @return true если ключ найден, иначе false
      */
-    private boolean contains(Node node, T key) {
-        if (node == null) {
-            return false;
-        }
-        if (key.compareTo(node.key) < 0) {
-            return contains(node.left, key);
-        } else if (key.compareTo(node.key) > 0) {
-            return contains(node.right, key);
-        } else {
-            return true;
+    public boolean contains(T key) {
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -203,6 +373,535 @@ class AVLTree<T extends Comparable<T>> implements Iterable<T> {
         return height(root);
     }
 
+    /**
+     * Возвращает количество ключей в дереве.
+     * @return размер дерева (0 для пустого дерева)
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Возвращает k-й по возрастанию ключ (нумерация с нуля).
+     * @param k порядковый номер ключа
+     * @return ключ, перед которым в дереве ровно k меньших ключей
+     * @throws IndexOutOfBoundsException если k вне диапазона [0, size())
+     */
+    public T select(int k) {
+        if (k < 0 || k >= size(root)) {
+            throw new IndexOutOfBoundsException("Индекс " + k + " вне диапазона [0, " + size(root) + ")");
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (k < leftSize) {
+                node = node.left;
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество ключей дерева, меньших заданного.
+     * Для присутствующего ключа это его порядковый номер (select(rank(key)) == key).
+     * @param key ключ
+     * @return количество меньших ключей
+     */
+    public int rank(T key) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Возвращает минимальный ключ дерева.
+     * @return минимальный ключ или null, если дерево пустое
+     */
+    public T first() {
+        return (root == null) ? null : minValueNode(root).key;
+    }
+
+    /**
+     * Возвращает максимальный ключ дерева.
+     * @return максимальный ключ или null, если дерево пустое
+     */
+    public T last() {
+        Node node = root;
+        if (node == null) {
+            return null;
+        }
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.key;
+    }
+
+    /**
+     * Возвращает наибольший ключ, не превосходящий заданный.
+     * @param key ключ
+     * @return найденный ключ или null
+     */
+    public T floor(T key) {
+        return below(key, true);
+    }
+
+    /**
+     * Возвращает наибольший ключ, строго меньший заданного.
+     * @param key ключ
+     * @return найденный ключ или null
+     */
+    public T lower(T key) {
+        return below(key, false);
+    }
+
+    /**
+     * Возвращает наименьший ключ, не меньший заданного.
+     * @param key ключ
+     * @return найденный ключ или null
+     */
+    public T ceiling(T key) {
+        return above(key, true);
+    }
+
+    /**
+     * Возвращает наименьший ключ, строго больший заданного.
+     * @param key ключ
+     * @return найденный ключ или null
+     */
+    public T higher(T key) {
+        return above(key, false);
+    }
+
+    /**
+     * Возвращает ленивый итератор по ключам диапазона [lo, hi) в порядке возрастания.
+     * Начало диапазона находится спуском от корня за O(log n), обход останавливается на hi.
+     * @param lo нижняя граница, включается
+     * @param hi верхняя граница, не включается
+     * @return итератор по ключам диапазона
+     */
+    public Iterator<T> range(T lo, T hi) {
+        return new InOrderIterator(lo, hi);
+    }
+
+    /**
+     * Разделяет дерево по ключу: в этом дереве остаются ключи, меньшие key,
+     * а ключи, не меньшие key, переносятся в возвращаемое дерево. Узлы не копируются;
+     * время - O(log n).
+     * @param key ключ разделения
+     * @return дерево с ключами, не меньшими key (с тем же порядком ключей)
+     */
+    public AVLTree<T> split(T key) {
+        Split parts = split(root, key);
+        AVLTree<T> right = new AVLTree<T>(comparator);
+        right.root = (parts.middle != null) ? join(null, parts.middle, parts.right) : parts.right;
+        root = parts.left;
+        return right;
+    }
+
+    /**
+     * Соединяет два дерева и ключ между ними за O(|h(left) - h(right)| + 1).
+     * Узлы исходных деревьев переходят в результат, сами деревья становятся пустыми.
+     * @param left дерево с ключами, меньшими key
+     * @param key средний ключ
+     * @param right дерево с ключами, большими key
+     * @return новое дерево с порядком ключей left
+     * @throws IllegalArgumentException если ключи left не меньше key или ключи right не больше key
+     */
+    public static <T extends Comparable<T>> AVLTree<T> join(AVLTree<T> left, T key, AVLTree<T> right) {
+        if ((left.root != null && left.compare(left.last(), key) >= 0)
+                || (right.root != null && left.compare(key, right.first()) >= 0)) {
+            throw new IllegalArgumentException("Ключи левого дерева должны быть меньше " + key
+                    + ", а ключи правого - больше");
+        }
+        AVLTree<T> tree = new AVLTree<T>(left.comparator);
+        tree.root = tree.join(left.root, tree.new Node(key), right.root);
+        left.root = null;
+        right.root = null;
+        return tree;
+    }
+
+    /**
+     * Заменяет дерево объединением с other за O(m log(n/m + 1)), где m - размер меньшего
+     * дерева. Узлы other переиспользуются, поэтому other становится пустым.
+     * Оба дерева должны использовать один порядок ключей.
+     * @param other второе дерево
+     */
+    public void union(AVLTree<T> other) {
+        if (other != this) {
+            root = setOperation(SetOperation.UNION, root, other.root);
+            other.root = null;
+        }
+    }
+
+    /**
+     * Оставляет в дереве только ключи, присутствующие в other, за O(m log(n/m + 1)).
+     * Узлы other переиспользуются, поэтому other становится пустым.
+     * @param other второе дерево
+     */
+    public void intersection(AVLTree<T> other) {
+        if (other != this) {
+            root = setOperation(SetOperation.INTERSECTION, root, other.root);
+            other.root = null;
+        }
+    }
+
+    /**
+     * Удаляет из дерева ключи, присутствующие в other, за O(m log(n/m + 1)).
+     * Узлы other переиспользуются, поэтому other становится пустым.
+     * @param other второе дерево
+     */
+    public void difference(AVLTree<T> other) {
+        root = (other == this) ? null : setOperation(SetOperation.DIFFERENCE, root, other.root);
+        other.root = null;
+    }
+
+    /**
+     * Параллельный вариант union(): независимые половины задачи
+     * выполняются в ForkJoinPool.commonPool().
+     * @param other второе дерево (становится пустым)
+     */
+    public void parallelUnion(AVLTree<T> other) {
+        if (other != this) {
+            root = ForkJoinPool.commonPool().invoke(new SetOperationTask(SetOperation.UNION, root, other.root));
+            other.root = null;
+        }
+    }
+
+    /**
+     * Параллельный вариант intersection().
+     * @param other второе дерево (становится пустым)
+     */
+    public void parallelIntersection(AVLTree<T> other) {
+        if (other != this) {
+            root = ForkJoinPool.commonPool().invoke(new SetOperationTask(SetOperation.INTERSECTION, root, other.root));
+            other.root = null;
+        }
+    }
+
+    /**
+     * Параллельный вариант difference().
+     * @param other второе дерево (становится пустым)
+     */
+    public void parallelDifference(AVLTree<T> other) {
+        root = (other == this) ? null
+                : ForkJoinPool.commonPool().invoke(new SetOperationTask(SetOperation.DIFFERENCE, root, other.root));
+        other.root = null;
+    }
+
+    /**
+     * Операции над множествами ключей.
+     */
+    private enum SetOperation { UNION, INTERSECTION, DIFFERENCE }
+
+    /**
+     * Результат разделения поддерева по ключу.
+     */
+    private class Split {
+        Node left;                  // Узлы с ключами, меньшими ключа разделения
+        Node middle;                // Отделенный узел с равным ключом (null - ключа нет)
+        Node right;                 // Узлы с ключами, большими ключа разделения
+
+        Split(Node left, Node middle, Node right) {
+            this.left = left;
+            this.middle = middle;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Выполняет операцию над поддеревьями a и b: ключ корня одного из них (b для разности)
+     * разделяет другое поддерево, половины обрабатываются рекурсивно и соединяются join().
+     * Используются и изменяются узлы обоих поддеревьев.
+     * @param op операция
+     * @param a корень первого поддерева
+     * @param b корень второго поддерева
+     * @return корень результата
+     */
+    private Node setOperation(SetOperation op, Node a, Node b) {
+        if (a == null || b == null) {
+            return (op == SetOperation.UNION && a == null) ? b : (op == SetOperation.INTERSECTION) ? null : a;
+        }
+        Node pivot = (op == SetOperation.DIFFERENCE) ? b : a;
+        Node pivotLeft = pivot.left, pivotRight = pivot.right;
+        Split parts = split((op == SetOperation.DIFFERENCE) ? a : b, pivot.key);
+        Node left, right;
+        if (op == SetOperation.DIFFERENCE) {
+            left = setOperation(op, parts.left, pivotLeft);
+            right = setOperation(op, parts.right, pivotRight);
+        } else {
+            left = setOperation(op, pivotLeft, parts.left);
+            right = setOperation(op, pivotRight, parts.right);
+        }
+        return combine(op, left, pivot, parts.middle != null, right);
+    }
+
+    /**
+     * Соединяет результаты для половин: ключ разделения входит в результат объединения
+     * всегда, пересечения - если он есть в обоих деревьях, разности - никогда.
+     * @param op операция
+     * @param left результат для меньших ключей
+     * @param pivot узел с ключом разделения
+     * @param inBoth присутствует ли ключ разделения в обоих деревьях
+     * @param right результат для больших ключей
+     * @return корень результата
+     */
+    private Node combine(SetOperation op, Node left, Node pivot, boolean inBoth, Node right) {
+        boolean keep = (op == SetOperation.UNION) || (op == SetOperation.INTERSECTION && inBoth);
+        return keep ? join(left, pivot, right) : join(left, right);
+    }
+
+    /**
+     * Задача ForkJoin для операции над множествами. Поддеревья половин не пересекаются
+     * по узлам, поэтому левая половина обрабатывается в отдельной задаче;
+     * небольшие поддеревья обрабатываются последовательно.
+     * Задачи не сериализуются (RecursiveTask наследует Serializable от ForkJoinTask).
+     */
+    @SuppressWarnings("serial")
+    private class SetOperationTask extends RecursiveTask<Node> {
+        private final SetOperation op;
+        private final Node a, b;
+
+        SetOperationTask(SetOperation op, Node a, Node b) {
+            this.op = op;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected Node compute() {
+            if (a == null || b == null || size(a) + size(b) <= PARALLEL_THRESHOLD) {
+                return setOperation(op, a, b);
+            }
+            Node pivot = (op == SetOperation.DIFFERENCE) ? b : a;
+            Node pivotLeft = pivot.left, pivotRight = pivot.right;
+            Split parts = split((op == SetOperation.DIFFERENCE) ? a : b, pivot.key);
+            SetOperationTask leftTask, rightTask;
+            if (op == SetOperation.DIFFERENCE) {
+                leftTask = new SetOperationTask(op, parts.left, pivotLeft);
+                rightTask = new SetOperationTask(op, parts.right, pivotRight);
+            } else {
+                leftTask = new SetOperationTask(op, pivotLeft, parts.left);
+                rightTask = new SetOperationTask(op, pivotRight, parts.right);
+            }
+            leftTask.fork();
+            Node right = rightTask.compute();
+            Node left = leftTask.join();
+            return combine(op, left, pivot, parts.middle != null, right);
+        }
+    }
+
+    /**
+     * Разделяет поддерево по ключу, переиспользуя его узлы. Глубина рекурсии - O(log n).
+     * @param node корень поддерева
+     * @param key ключ разделения
+     * @return меньшие ключи, узел с равным ключом (отсоединенный) и большие ключи
+     */
+    private Split split(Node node, T key) {
+        if (node == null) {
+            return new Split(null, null, null);
+        }
+        int cmp = compare(key, node.key);
+        if (cmp == 0) {
+            Split parts = new Split(node.left, node, node.right);
+            node.left = null;
+            node.right = null;
+            update(node);
+            return parts;
+        }
+        if (cmp < 0) {
+            Split parts = split(node.left, key);
+            parts.right = join(parts.right, node, node.right);
+            return parts;
+        }
+        Split parts = split(node.right, key);
+        parts.left = join(node.left, node, parts.left);
+        return parts;
+    }
+
+    /**
+     * Соединяет поддеревья через средний узел: спуск идет по правому (левому) краю
+     * более высокого поддерева до уровня высоты другого, на обратном пути
+     * узлы балансируются. Время - O(|h(left) - h(right)| + 1).
+     * @param left поддерево с меньшими ключами
+     * @param middle узел со средним ключом (его потомки перезаписываются)
+     * @param right поддерево с большими ключами
+     * @return корень результата
+     */
+    private Node join(Node left, Node middle, Node right) {
+        if (height(left) > height(right) + 1) {
+            left.right = join(left.right, middle, right);
+            update(left);
+            return balance(left);
+        }
+        if (height(right) > height(left) + 1) {
+            right.left = join(left, middle, right.left);
+            update(right);
+            return balance(right);
+        }
+        middle.left = left;
+        middle.right = right;
+        update(middle);
+        return middle;
+    }
+
+    /**
+     * Соединяет поддеревья без среднего ключа: средним становится
+     * отсоединенный максимальный узел левого поддерева.
+     * @param left поддерево с меньшими ключами
+     * @param right поддерево с большими ключами
+     * @return корень результата
+     */
+    private Node join(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        Node max = left;
+        while (max.right != null) {
+            max = max.right;
+        }
+        return join(removeMax(left), max, right);
+    }
+
+    /**
+     * Отсоединяет максимальный узел поддерева.
+     * @param node корень непустого поддерева
+     * @return корень поддерева без максимального узла
+     */
+    private Node removeMax(Node node) {
+        if (node.right == null) {
+            return node.left;
+        }
+        node.right = removeMax(node.right);
+        update(node);
+        return balance(node);
+    }
+
+    /**
+     * Поиск наибольшего ключа, меньшего заданного (или равного ему, если inclusive).
+     * @param key ключ
+     * @param inclusive допускается ли равенство
+     * @return найденный ключ или null
+     */
+    private T below(T key, boolean inclusive) {
+        T result = null;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp > 0 || (inclusive && cmp == 0)) {
+                result = node.key;
+                if (cmp == 0) {
+                    break;
+                }
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Поиск наименьшего ключа, большего заданного (или равного ему, если inclusive).
+     * @param key ключ
+     * @param inclusive допускается ли равенство
+     * @return найденный ключ или null
+     */
+    private T above(T key, boolean inclusive) {
+        T result = null;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp < 0 || (inclusive && cmp == 0)) {
+                result = node.key;
+                if (cmp == 0) {
+                    break;
+                }
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * In-order итератор по узлам дерева (всего или диапазона [lo, hi)) с явным стеком,
+     * как в BinSTreeIterator. В стеке хранятся узлы, в которых спуск ушел влево:
+     * вершина - следующий ключ. Глубина стека не превышает высоту дерева.
+     */
+    private class InOrderIterator implements Iterator<T> {
+        private final Deque<Node> stack = new ArrayDeque<>(height(root) + 1);
+        private final T hi;                 // Верхняя граница, не включается (null - без границы)
+
+        /**
+         * Создает итератор и находит первый ключ, не меньший lo.
+         * @param lo нижняя граница, включается (null - от минимального ключа)
+         * @param hi верхняя граница, не включается (null - до максимального ключа)
+         */
+        InOrderIterator(T lo, T hi) {
+            this.hi = hi;
+            Node node = root;
+            while (node != null) {
+                if (lo == null || compare(node.key, lo) >= 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && (hi == null || compare(stack.peek().key, hi) < 0);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node node = stack.pop();
+            for (Node child = node.right; child != null; child = child.left) {
+                stack.push(child);
+            }
+            return node.key;
+        }
+    }
+
+    /**
+     * Возвращает размер поддерева.
+     * @param node корень поддерева
+     * @return количество узлов (0 для null)
+     */
+    private int size(Node node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    /**
+     * Пересчитывает высоту и размер узла по его потомкам.
+     * @param node узел для обновления
+     */
+    private void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
     /**
      * Возвращает высоту узла.
      * @param node узел для проверки
@@ -264,9 +963,9 @@ class AVLTree<T extends Comparable<T>> implements Iterable<T> {
         // Выполняем поворот
         x.right = y;
         y.left = T2;
-        // Обновляем высоты
-        y.height = Math.max(height(y.left), height(y.right)) + 1;
-        x.height = Math.max(height(x.left), height(x.right)) + 1;
+        // Обновляем высоты и размеры
+        update(y);
+        update(x);
         return x;
     }
 
@@ -281,9 +980,9 @@ class AVLTree<T extends Comparable<T>> implements Iterable<T> {
         // Выполняем поворот
         y.left = x;
         x.right = T2;
-        // Обновляем высоты
-        x.height = Math.max(height(x.left), height(x.right)) + 1;
-        y.height = Math.max(height(y.left), height(y.right)) + 1;
+        // Обновляем высоты и размеры
+        update(x);
+        update(y);
         return y;
     }
 
@@ -1,5 +1,6 @@
 package Zabgu;
 
+import java.util.Comparator;
 import java.util.Random;
 import java.util.Set;
 import java.util.HashSet;
@@ -68,6 +69,198 @@ public class AVLTreePerformanceTest {
         createChart(sizes, times);
     }
 
+    /**
+     * Подсчитывает среднее количество сравнений ключей на одну операцию
+     * вставки, поиска и удаления с помощью считающего Comparator.
+     * Для сравнения выводится log2(n) - нижняя граница для поиска в двоичном дереве.
+     */
+    public static void testComparisonsPerOperation() {
+        System.out.println("\nСравнений ключей на операцию в AVL-дереве:");
+        System.out.println("Размер   | log2(n) | вставка | поиск  | удаление");
+        System.out.println("--------------------------------------------------");
+
+        int[] sizes = {1_000, 100_000, 1_000_000};
+        Random rand = new Random();
+        long[] comparisons = new long[1];
+        Comparator<Integer> counting = (a, b) -> {
+            comparisons[0]++;
+            return Integer.compare(a, b);
+        };
+
+        for (int size : sizes) {
+            int[] keys = new int[size];
+            for (int j = 0; j < size; j++) {
+                keys[j] = rand.nextInt();
+            }
+            AVLTree<Integer> avl = new AVLTree<>(counting);
+
+            comparisons[0] = 0;
+            for (int key : keys) {
+                avl.insert(key);
+            }
+            double insertOps = (double) comparisons[0] / size;
+
+            comparisons[0] = 0;
+            for (int j = 0; j < size; j++) {
+                avl.contains(rand.nextBoolean() ? keys[j] : rand.nextInt());
+            }
+            double searchOps = (double) comparisons[0] / size;
+
+            comparisons[0] = 0;
+            for (int key : keys) {
+                avl.delete(key);
+            }
+            double deleteOps = (double) comparisons[0] / size;
+
+            System.out.printf("%8d | %7.1f | %7.1f | %6.1f | %8.1f%n", size,
+                    Math.log(size) / Math.log(2), insertOps, searchOps, deleteOps);
+        }
+    }
+
+    /**
+     * Сравнивает заполнение AVL-дерева из 1 000 000 упорядоченных ключей
+     * поэлементной вставкой и построением fromSortedArray().
+     */
+    public static void testBulkBuild() {
+        System.out.println("\nПостроение AVL-дерева из 1 000 000 упорядоченных ключей (мс):");
+        System.out.println("Способ           | время");
+        System.out.println("--------------------------");
+
+        int size = 1_000_000;
+        Integer[] keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = i;
+        }
+
+        // Лучшее время из нескольких повторов: основная часть времени - выделение памяти и сборка мусора
+        long insertTime = Long.MAX_VALUE;
+        long buildTime = Long.MAX_VALUE;
+        AVLTree<Integer> inserted = null;
+        AVLTree<Integer> built = null;
+        for (int round = 0; round < 3; round++) {
+            inserted = null;
+            System.gc();
+            long startTime = System.nanoTime();
+            inserted = new AVLTree<>();
+            for (Integer key : keys) {
+                inserted.insert(key);
+            }
+            insertTime = Math.min(insertTime, (System.nanoTime() - startTime) / 1_000_000);
+
+            built = null;
+            System.gc();
+            startTime = System.nanoTime();
+            built = AVLTree.fromSortedArray(keys);
+            buildTime = Math.min(buildTime, (System.nanoTime() - startTime) / 1_000_000);
+        }
+        System.out.printf("%-16s | %5d%n", "insert()", insertTime);
+        System.out.printf("%-16s | %5d%n", "fromSortedArray", buildTime);
+        System.out.println("(высота: " + inserted.height() + " и " + built.height() + ")");
+    }
+
+    /**
+     * Сравнивает стоимость снимка дерева из 1 000 000 ключей: полное копирование
+     * BinSTree.deepCopy() и обновление PersistentAVLTree, после которого старая
+     * версия остается доступной читателям.
+     */
+    public static void testSnapshots() {
+        System.out.println("\nСнимок дерева из 1 000 000 ключей (мкс на снимок):");
+        System.out.println("Способ                          | время");
+        System.out.println("-----------------------------------------");
+
+        int size = 1_000_000;
+        Integer[] keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = 2 * i;
+        }
+        BinSTree<Integer> binSTree = BinSTree.fromSortedArray(keys);
+        PersistentAVLTree<Integer> persistent = new PersistentAVLTree<>();
+        for (Integer key : keys) {
+            persistent = persistent.insert(key);
+        }
+
+        int copies = 5;
+        System.gc();
+        long startTime = System.nanoTime();
+        BinSTree<Integer> copy = null;
+        for (int i = 0; i < copies; i++) {
+            copy = binSTree.deepCopy();
+        }
+        double copyTime = (System.nanoTime() - startTime) / 1_000.0 / copies;
+
+        // Каждое обновление создает новую версию; предыдущая версия и есть снимок
+        int updates = 100_000;
+        Random random = new Random(42);
+        PersistentAVLTree<Integer> snapshot = persistent;
+        System.gc();
+        startTime = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            int key = 2 * random.nextInt(size) + 1;
+            snapshot = persistent;
+            persistent = persistent.insert(key).delete(key);
+        }
+        double persistentTime = (System.nanoTime() - startTime) / 1_000.0 / updates;
+
+        System.out.printf("%-31s | %9.1f%n", "BinSTree.deepCopy()", copyTime);
+        System.out.printf("%-31s | %9.1f%n", "PersistentAVLTree insert+delete", persistentTime);
+        System.out.println("(размеры: " + copy.size() + " и " + snapshot.size() + ")");
+    }
+
+    /**
+     * Сравнивает слияние дерева из 1 000 000 ключей с деревом из m ключей:
+     * обход второго дерева со вставкой каждого ключа, union() и parallelUnion().
+     * Деревья строятся заново перед каждым замером, так как union() использует их узлы.
+     */
+    public static void testSetOperations() {
+        System.out.println("\nОбъединение дерева из 1 000 000 ключей с деревом из m ключей (мс):");
+        System.out.println("       m | insert() | union() | parallelUnion()");
+        System.out.println("------------------------------------------------");
+
+        int size = 1_000_000;
+        Integer[] keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = 2 * i;
+        }
+        Random random = new Random(42);
+        for (int m : new int[]{1_000, 100_000, 1_000_000}) {
+            Integer[] otherKeys = new Integer[m];
+            int key = -1;
+            for (int i = 0; i < m; i++) {
+                key += 1 + random.nextInt(2 * size / m);
+                otherKeys[i] = key;
+            }
+
+            // Лучшее время из нескольких повторов
+            long insertTime = Long.MAX_VALUE;
+            long unionTime = Long.MAX_VALUE;
+            long parallelTime = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                AVLTree<Integer> target = AVLTree.fromSortedArray(keys);
+                AVLTree<Integer> other = AVLTree.fromSortedArray(otherKeys);
+                System.gc();
+                long startTime = System.nanoTime();
+                for (Integer k : other) {
+                    target.insert(k);
+                }
+                insertTime = Math.min(insertTime, (System.nanoTime() - startTime) / 1_000_000);
+
+                target = AVLTree.fromSortedArray(keys);
+                System.gc();
+                startTime = System.nanoTime();
+                target.union(other);
+                unionTime = Math.min(unionTime, (System.nanoTime() - startTime) / 1_000_000);
+
+                target = AVLTree.fromSortedArray(keys);
+                other = AVLTree.fromSortedArray(otherKeys);
+                System.gc();
+                startTime = System.nanoTime();
+                target.parallelUnion(other);
+                parallelTime = Math.min(parallelTime, (System.nanoTime() - startTime) / 1_000_000);
+            }
+            System.out.printf("%8d | %8d | %7d | %15d%n", m, insertTime, unionTime, parallelTime);
+        }
+    }
+
     /**
      * Создает график зависимости времени поиска от размера дерева.
      * @param sizes массив размеров дерева
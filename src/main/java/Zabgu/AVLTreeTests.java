@@ -1,5 +1,18 @@
 package Zabgu;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
 /**
  * Класс для модульного тестирования AVL-дерева.
  * Содержит тесты основных операций и проверку балансировки.
@@ -17,6 +30,14 @@ public class AVLTreeTests {
         testBalanceAfterDelete();
         testHeight();
         testEmptyTree();
+        testOrderStatistics();
+        testNavigation();
+        testIterator();
+        testComparator();
+        testRandomUpdates();
+        testBulkBuild();
+        testPersistentTree();
+        testSetOperations();
         System.out.println("Все тесты пройдены успешно!");
     }
 
@@ -151,6 +172,419 @@ public class AVLTreeTests {
         System.out.println("Тест 7 пройден успешно");
     }
 
+    /**
+     * Тестирует порядковые статистики: size(), select() и rank()
+     * после вставок и удалений, вызывающих повороты.
+     */
+    private static void testOrderStatistics() {
+        System.out.println("\nТест 8: Порядковые статистики");
+        AVLTree<Integer> tree = new AVLTree<>();
+        for (int i = 1; i <= 100; i++) {
+            tree.insert(i * 10);
+        }
+        tree.insert(500);
+        for (int i = 1; i <= 100; i += 3) {
+            tree.delete(i * 10);
+        }
+        assertEquals(66, tree.size(), "Размер после удаления 34 ключей");
+
+        int k = 0;
+        for (int i = 1; i <= 100; i++) {
+            if (i % 3 == 1) {
+                continue;
+            }
+            assertEquals(i * 10, tree.select(k), "select(" + k + ")");
+            assertEquals(k, tree.rank(i * 10), "rank(" + i * 10 + ")");
+            k++;
+        }
+        assertEquals(0, tree.rank(5), "rank() меньше минимума");
+        assertEquals(66, tree.rank(2000), "rank() больше максимума");
+
+        boolean exceptionThrown = false;
+        try {
+            tree.select(66);
+        } catch (IndexOutOfBoundsException e) {
+            exceptionThrown = true;
+        }
+        assertTrue(exceptionThrown, "select() вне диапазона должен бросать исключение");
+
+        System.out.println("Тест 8 пройден успешно");
+    }
+
+    /**
+     * Тестирует навигационные методы и итератор по диапазону.
+     */
+    private static void testNavigation() {
+        System.out.println("\nТест 9: Навигация и диапазоны");
+        AVLTree<Integer> tree = new AVLTree<>();
+        assertTrue(tree.first() == null && tree.ceiling(1) == null, "Пустое дерево не имеет ключей");
+        for (int i = 1; i <= 100; i++) {
+            tree.insert(i * 10);
+        }
+        assertEquals(10, tree.first(), "first()");
+        assertEquals(1000, tree.last(), "last()");
+        assertEquals(450, tree.floor(455), "floor(455)");
+        assertEquals(450, tree.floor(450), "floor(450)");
+        assertEquals(460, tree.ceiling(455), "ceiling(455)");
+        assertEquals(440, tree.lower(450), "lower(450)");
+        assertEquals(460, tree.higher(450), "higher(450)");
+        assertTrue(tree.floor(5) == null && tree.higher(1000) == null, "Вне диапазона ключей должен возвращаться null");
+
+        int expected = 250;
+        Iterator<Integer> range = tree.range(245, 500);
+        while (range.hasNext()) {
+            assertEquals(expected, range.next(), "Ключ диапазона");
+            expected += 10;
+        }
+        assertEquals(500, expected, "Диапазон [245, 500) должен закончиться на 490");
+
+        System.out.println("Тест 9 пройден успешно");
+    }
+
+    /**
+     * Тестирует итератор дерева: порядок ключей, совпадение с обходом копии
+     * в TreeNode и исключение после окончания элементов.
+     */
+    private static void testIterator() {
+        System.out.println("\nТест 10: Итератор");
+        AVLTree<Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 1000; i++) {
+            tree.insert((i * 37) % 1000);
+        }
+
+        int expected = 0;
+        for (int key : tree) {
+            assertEquals(expected++, key, "Ключи должны обходиться по возрастанию");
+        }
+        assertEquals(1000, expected, "Итератор должен обойти все ключи");
+
+        Iterator<Integer> copyIterator = new BinSTreeIterator<>(tree.getRoot());
+        Iterator<Integer> iterator = tree.iterator();
+        while (copyIterator.hasNext()) {
+            assertEquals(copyIterator.next(), iterator.next(), "Обход должен совпадать с обходом копии");
+        }
+        assertFalse(iterator.hasNext(), "Итератор должен закончиться вместе с копией");
+
+        boolean exceptionThrown = false;
+        try {
+            iterator.next();
+        } catch (NoSuchElementException e) {
+            exceptionThrown = true;
+        }
+        assertTrue(exceptionThrown, "next() после окончания должен бросать исключение");
+
+        System.out.println("Тест 10 пройден успешно");
+    }
+
+    /**
+     * Тестирует дерево с заданным Comparator: обратный порядок ключей
+     * и не более одного сравнения на уровень при поиске.
+     */
+    private static void testComparator() {
+        System.out.println("\nТест 11: Дерево с Comparator");
+        int[] comparisons = new int[1];
+        AVLTree<Integer> tree = new AVLTree<>((a, b) -> {
+            comparisons[0]++;
+            return Integer.compare(b, a);
+        });
+        for (int i = 1; i <= 100; i++) {
+            tree.insert(i);
+        }
+        tree.delete(50);
+
+        int expected = 100;
+        for (int key : tree) {
+            if (expected == 50) {
+                expected--;
+            }
+            assertEquals(expected--, key, "Ключи должны идти в порядке Comparator");
+        }
+        assertEquals(100, tree.first(), "first() в обратном порядке");
+        assertEquals(51, tree.higher(52), "higher() в обратном порядке");
+
+        for (int i = 0; i <= 101; i++) {
+            comparisons[0] = 0;
+            assertEquals(i >= 1 && i <= 100 && i != 50 ? 1 : 0, tree.contains(i) ? 1 : 0, "contains(" + i + ")");
+            assertTrue(comparisons[0] <= tree.height(), "Поиск должен выполнять не больше одного сравнения на уровень");
+        }
+
+        AVLTree<String> byLength = new AVLTree<>(Comparator.comparingInt(String::length));
+        byLength.insert("ccc");
+        byLength.insert("a");
+        byLength.insert("bb");
+        byLength.insert("dd");
+        assertEquals(3, byLength.size(), "Ключи, равные по Comparator, считаются дубликатами");
+
+        System.out.println("Тест 11 пройден успешно");
+    }
+
+    /**
+     * Тестирует случайную последовательность вставок и удалений в сравнении с TreeSet:
+     * совпадение содержимого и размеров, порядковых статистик и допустимую высоту AVL-дерева.
+     */
+    private static void testRandomUpdates() {
+        System.out.println("\nТест 12: Случайные вставки и удаления");
+        AVLTree<Integer> tree = new AVLTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                tree.delete(key);
+                expected.remove(key);
+            } else {
+                tree.insert(key);
+                expected.add(key);
+            }
+        }
+
+        assertEquals(expected.size(), tree.size(), "Размер должен совпадать с TreeSet");
+        int k = 0;
+        for (int key : expected) {
+            assertEquals(key, tree.select(k), "select(" + k + ")");
+            assertEquals(k, tree.rank(key), "rank(" + key + ")");
+            k++;
+        }
+        for (int key = 0; key < 5_000; key++) {
+            assertEquals(expected.contains(key) ? 1 : 0, tree.contains(key) ? 1 : 0, "contains(" + key + ")");
+        }
+        double maxHeight = 1.45 * Math.log(expected.size() + 2) / Math.log(2);
+        assertTrue(tree.height() <= maxHeight, "Высота " + tree.height() + " превышает границу AVL-дерева");
+
+        for (int key : expected) {
+            tree.delete(key);
+        }
+        assertEquals(0, tree.size(), "После удаления всех ключей дерево должно быть пустым");
+        assertEquals(0, tree.height(), "Высота пустого дерева должна быть 0");
+
+        System.out.println("Тест 12 пройден успешно");
+    }
+
+    /**
+     * Тестирует построение дерева из упорядоченных данных:
+     * минимальную высоту, корректность высот и размеров при дальнейших изменениях
+     * и отказ для неупорядоченных данных.
+     */
+    private static void testBulkBuild() {
+        System.out.println("\nТест 13: Построение из упорядоченных данных");
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(i);
+        }
+        AVLTree<Integer> tree = AVLTree.fromSorted(keys);
+        assertEquals(10, tree.height(), "Высота дерева из 1000 ключей");
+        assertEquals(1000, tree.size(), "Размер дерева");
+        assertEquals(777, tree.select(777), "select(777)");
+
+        for (int i = 0; i < 1000; i += 2) {
+            tree.delete(i);
+        }
+        for (int i = 1000; i < 1500; i++) {
+            tree.insert(i);
+        }
+        assertEquals(1000, tree.size(), "Размер после изменений");
+        assertEquals(1, tree.first(), "first() после изменений");
+        assertTrue(tree.height() <= 12, "Дерево должно оставаться сбалансированным");
+
+        AVLTree<String> reversed = AVLTree.fromSorted(List.of("c", "b", "a"), Comparator.reverseOrder());
+        assertTrue(reversed.contains("b") && "c".equals(reversed.first()), "Построение с Comparator");
+
+        AVLTree<Integer> fromArray = AVLTree.fromSortedArray(new Integer[]{1, 2, 3});
+        assertEquals(2, fromArray.height(), "Высота дерева из массива");
+
+        boolean exceptionThrown = false;
+        try {
+            AVLTree.fromSortedArray(new Integer[]{2, 1});
+        } catch (IllegalArgumentException e) {
+            exceptionThrown = true;
+        }
+        assertTrue(exceptionThrown, "Неупорядоченные ключи должны отклоняться");
+
+        System.out.println("Тест 13 пройден успешно");
+    }
+
+    /**
+     * Тестирует персистентное дерево: независимость версий, разделение узлов
+     * между версиями и совпадение содержимого с TreeSet после случайных изменений.
+     */
+    private static void testPersistentTree() {
+        System.out.println("\nТест 14: Персистентное дерево");
+        PersistentAVLTree<Integer> empty = new PersistentAVLTree<>();
+        PersistentAVLTree<Integer> v1 = empty;
+        for (int i = 0; i < 1000; i++) {
+            v1 = v1.insert(i);
+        }
+        PersistentAVLTree<Integer> v2 = v1.insert(1000).delete(500);
+
+        assertEquals(0, empty.size(), "Пустая версия не должна меняться");
+        assertEquals(1000, v1.size(), "Размер первой версии");
+        assertTrue(v1.contains(500) && !v1.contains(1000), "Первая версия не должна меняться");
+        assertTrue(!v2.contains(500) && v2.contains(1000), "Вторая версия должна содержать изменения");
+        assertTrue(v1.insert(10) == v1, "Вставка существующего ключа возвращает ту же версию");
+        assertTrue(v1.delete(-1) == v1, "Удаление отсутствующего ключа возвращает ту же версию");
+
+        // Два обновления копируют O(log n) узлов, остальные разделяются
+        int copied = v2.size() - sharedNodes(v2, v1);
+        assertTrue(copied <= 4 * v1.height(), "Скопировано " + copied + " узлов");
+
+        PersistentAVLTree<Integer> tree = new PersistentAVLTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                tree = tree.delete(key);
+                expected.remove(key);
+            } else {
+                tree = tree.insert(key);
+                expected.add(key);
+            }
+        }
+        assertEquals(expected.size(), tree.size(), "Размер должен совпадать с TreeSet");
+        Iterator<Integer> iterator = tree.iterator();
+        int k = 0;
+        for (int key : expected) {
+            assertEquals(key, iterator.next(), "Порядок обхода");
+            assertEquals(key, tree.select(k), "select(" + k + ")");
+            assertEquals(k, tree.rank(key), "rank(" + key + ")");
+            k++;
+        }
+        assertFalse(iterator.hasNext(), "Итератор должен быть исчерпан");
+        double maxHeight = 1.45 * Math.log(expected.size() + 2) / Math.log(2);
+        assertTrue(tree.height() <= maxHeight, "Высота " + tree.height() + " превышает границу AVL-дерева");
+
+        PersistentAVLTree<String> reversed = new PersistentAVLTree<String>(Comparator.reverseOrder())
+                .insert("a").insert("c").insert("b");
+        assertTrue("c".equals(reversed.select(0)), "Порядок Comparator");
+
+        System.out.println("Тест 14 пройден успешно");
+    }
+
+    /**
+     * Тестирует split/join и операции над множествами (последовательные и параллельные)
+     * в сравнении с TreeSet: содержимое, размеры поддеревьев и допустимую высоту результата.
+     */
+    private static void testSetOperations() {
+        System.out.println("\nТест 15: Операции над множествами");
+        AVLTree<Integer> tree = AVLTree.fromSorted(rangeKeys(0, 100, 1));
+        AVLTree<Integer> upper = tree.split(40);
+        assertEquals(40, tree.size(), "split(): меньшие ключи");
+        assertEquals(60, upper.size(), "split(): не меньшие ключи");
+        assertEquals(40, upper.first(), "split(): ключ разделения переходит во второе дерево");
+        upper.delete(40);
+        AVLTree<Integer> joined = AVLTree.join(tree, 40, upper);
+        assertEquals(100, joined.size(), "join(): размер");
+        assertEquals(0, tree.size() + upper.size(), "join(): исходные деревья становятся пустыми");
+        assertEquals(40, joined.select(40), "join(): select(40)");
+
+        AVLTree<Integer> small = AVLTree.fromSorted(rangeKeys(0, 3, 1));
+        AVLTree<Integer> large = AVLTree.fromSorted(rangeKeys(10, 10_000, 1));
+        AVLTree<Integer> skewed = AVLTree.join(small, 5, large);
+        assertTrue(skewed.height() <= 1.45 * Math.log(skewed.size() + 2) / Math.log(2), "join() деревьев разной высоты");
+
+        boolean exceptionThrown = false;
+        try {
+            AVLTree.join(AVLTree.fromSorted(rangeKeys(0, 10, 1)), 5, new AVLTree<>());
+        } catch (IllegalArgumentException e) {
+            exceptionThrown = true;
+        }
+        assertTrue(exceptionThrown, "join() с неупорядоченными ключами должен отклоняться");
+
+        Random random = new Random(11);
+        for (int size : new int[]{100, 50_000}) {
+            for (int op = 0; op < 6; op++) {
+                TreeSet<Integer> setA = randomSet(random, size, size * 3);
+                TreeSet<Integer> setB = randomSet(random, random.nextInt(size) + 1, size * 3);
+                AVLTree<Integer> a = AVLTree.fromSorted(setA);
+                AVLTree<Integer> b = AVLTree.fromSorted(setB);
+                switch (op) {
+                    case 0 -> { a.union(b); setA.addAll(setB); }
+                    case 1 -> { a.intersection(b); setA.retainAll(setB); }
+                    case 2 -> { a.difference(b); setA.removeAll(setB); }
+                    case 3 -> { a.parallelUnion(b); setA.addAll(setB); }
+                    case 4 -> { a.parallelIntersection(b); setA.retainAll(setB); }
+                    default -> { a.parallelDifference(b); setA.removeAll(setB); }
+                }
+                String name = "Операция " + op + ", размер " + size;
+                assertEquals(0, b.size(), name + ": второе дерево становится пустым");
+                assertEquals(setA.size(), a.size(), name + ": размер");
+                int k = 0;
+                Iterator<Integer> iterator = a.iterator();
+                for (int key : setA) {
+                    assertEquals(key, iterator.next(), name + ": порядок обхода");
+                    assertEquals(k, a.rank(key), name + ": rank(" + key + ")");
+                    k++;
+                }
+                double maxHeight = 1.45 * Math.log(setA.size() + 2) / Math.log(2);
+                assertTrue(a.height() <= maxHeight, name + ": высота " + a.height());
+            }
+        }
+
+        AVLTree<Integer> self = AVLTree.fromSorted(rangeKeys(0, 10, 1));
+        self.union(self);
+        assertEquals(10, self.size(), "Объединение дерева с самим собой");
+        self.difference(self);
+        assertEquals(0, self.size(), "Разность дерева с самим собой");
+
+        System.out.println("Тест 15 пройден успешно");
+    }
+
+    /**
+     * Подсчитывает узлы версии, которые разделяются с другой версией персистентного дерева.
+     * Узлы сравниваются по ссылке; разделяемое поддерево учитывается целиком без обхода.
+     */
+    private static int sharedNodes(PersistentAVLTree<Integer> version, PersistentAVLTree<Integer> other) {
+        Set<PersistentAVLTree.Node<Integer>> otherNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<PersistentAVLTree.Node<Integer>> stack = new ArrayDeque<>();
+        if (other.getRoot() != null) {
+            stack.push(other.getRoot());
+        }
+        while (!stack.isEmpty()) {
+            PersistentAVLTree.Node<Integer> node = stack.pop();
+            if (otherNodes.add(node)) {
+                if (node.left != null) stack.push(node.left);
+                if (node.right != null) stack.push(node.right);
+            }
+        }
+
+        int shared = 0;
+        if (version.getRoot() != null) {
+            stack.push(version.getRoot());
+        }
+        while (!stack.isEmpty()) {
+            PersistentAVLTree.Node<Integer> node = stack.pop();
+            if (otherNodes.contains(node)) {
+                shared += node.size;
+            } else {
+                if (node.left != null) stack.push(node.left);
+                if (node.right != null) stack.push(node.right);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Создает список ключей from, from + step, ... меньших to.
+     */
+    private static List<Integer> rangeKeys(int from, int to, int step) {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = from; key < to; key += step) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Создает множество из count случайных ключей диапазона [0, bound).
+     */
+    private static TreeSet<Integer> randomSet(Random random, int count, int bound) {
+        TreeSet<Integer> set = new TreeSet<>();
+        while (set.size() < count) {
+            set.add(random.nextInt(bound));
+        }
+        return set;
+    }
+
     /**
      * Проверяет истинность условия.
      * @param condition условие для проверки
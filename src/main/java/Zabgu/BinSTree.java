@@ -1,8 +1,11 @@
 package Zabgu;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Iterator;
+import java.util.Random;
 
 /**
  * Класс бинарного дерева поиска.
@@ -28,12 +31,55 @@ import java.util.Iterator;
  */
 public class BinSTree<T extends Comparable<T>> implements Iterable<T> {
     private TreeNode<T> root;
+    private int modCount;               // Счетчик изменений дерева (для итераторов)
+    private final Balancing balancing;  // Стратегия балансировки
+    private final Random random;        // Источник приоритетов узлов (только для TREAP)
 
     /**
-     * Конструктор по умолчанию, создает пустое дерево.
+     * Стратегия балансировки дерева.
+     * NONE - обычное дерево поиска: упорядоченные вставки вырождают его в список.
+     * TREAP - декартово дерево: каждый узел получает случайный приоритет, и поворотами
+     * поддерживается порядок кучи по приоритетам, поэтому ожидаемая глубина O(log n)
+     * при любом порядке вставок.
+     */
+    public enum Balancing { NONE, TREAP }
+
+    /**
+     * Узел декартова дерева: обычный TreeNode со случайным приоритетом,
+     * поэтому статические методы для TreeNode работают и с ним.
+     */
+    static final class TreapNode<T> extends TreeNode<T> {
+        final int priority;     // Приоритет узла (у родителя не меньше, чем у потомков)
+
+        TreapNode(T value, int priority) {
+            super(value);
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Конструктор по умолчанию, создает пустое несбалансированное дерево.
      */
     public BinSTree() {
+        this(Balancing.NONE);
+    }
+
+    /**
+     * Создает пустое дерево с заданной стратегией балансировки.
+     * @param balancing стратегия балансировки
+     */
+    public BinSTree(Balancing balancing) {
         this.root = null;
+        this.balancing = balancing;
+        this.random = (balancing == Balancing.TREAP) ? new Random() : null;
+    }
+
+    /**
+     * Возвращает стратегию балансировки дерева.
+     * @return стратегия балансировки
+     */
+    public Balancing getBalancing() {
+        return balancing;
     }
 
 /////////////////////////////////////////////////---Вывод дерева---/////////////////////////////////////////////////////
@@ -51,25 +97,28 @@ public class BinSTree<T extends Comparable<T>> implements Iterable<T> {
      * @param node корневой узел поддерева для вывода
      */
     public static <T> void printTree(TreeNode<T> node) {
-        printTreeRec(node, 0, new StringBuilder());
-    }
-
-    /**
-     * Рекурсивный метод для форматированного вывода дерева
-     * @param <T> тип элементов дерева
-     * @param node текущий узел
-     * @param level текущий уровень вложенности
-     * @prefix префикс для отступов
-     */
-    private static <T> void printTreeRec(TreeNode<T> node, int level, StringBuilder prefix) {
-        if (node == null) return;
-        printTreeRec(node.right, level + 1, new StringBuilder(prefix).append("   "));
-        if (level == 0) {
-            System.out.println(" " + node.value);
-        } else {
-            System.out.println(prefix + " |---" + node.value);
+        // Обход RNL с явным стеком: правое поддерево печатается выше узла, левое - ниже
+        Deque<TreeNode<T>> nodes = new ArrayDeque<>();
+        Deque<Integer> levels = new ArrayDeque<>();
+        TreeNode<T> current = node;
+        int level = 0;
+
+        while (current != null || !nodes.isEmpty()) {
+            while (current != null) {
+                nodes.push(current);
+                levels.push(level++);
+                current = current.right;
+            }
+            current = nodes.pop();
+            level = levels.pop();
+            if (level == 0) {
+                System.out.println(" " + current.value);
+            } else {
+                System.out.println("   ".repeat(level) + " |---" + current.value);
+            }
+            current = current.left;
+            level++;
         }
-        printTreeRec(node.left, level + 1, new StringBuilder(prefix).append("   "));
     }
 
 /////////////////////////////////////////////////---Обход LNR---/////////////////////////////////////////////////////
@@ -90,22 +139,19 @@ public class BinSTree<T extends Comparable<T>> implements Iterable<T> {
      */
     public static <T> List<T> traverseLNR(TreeNode<T> node) {
         List<T> result = new ArrayList<>();
-        traverseLNR(node, result);
-        return result;
-    }
-
-    /**
-     * Рекурсивный метод симметричного обхода
-     * @param <T> тип элементов дерева
-     * @param node текущий узел
-     * @param result список для сохранения результатов
-     */
-    private static <T> void traverseLNR(TreeNode<T> node, List<T> result) {
-        if (node != null) {
-            traverseLNR(node.left, result);
-            result.add(node.value);
-            traverseLNR(node.right, result);
+        Deque<TreeNode<T>> stack = new ArrayDeque<>();
+        TreeNode<T> current = node;
+
+        while (current != null || !stack.isEmpty()) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+            current = stack.pop();
+            result.add(current.value);
+            current = current.right;
         }
+        return result;
     }
 
 /////////////////////////////////////////////////---Обход RNL---/////////////////////////////////////////////////////
@@ -126,32 +172,99 @@ public class BinSTree<T extends Comparable<T>> implements Iterable<T> {
      */
     public static <T> List<T> traverseRNL(TreeNode<T> node) {
         List<T> result = new ArrayList<>();
-        traverseRNL(node, result);
+        Deque<TreeNode<T>> stack = new ArrayDeque<>();
+        TreeNode<T> current = node;
+
+        while (current != null || !stack.isEmpty()) {
+            while (current != null) {
+                stack.push(current);
+                current = current.right;
+            }
+            current = stack.pop();
+            result.add(current.value);
+            current = current.left;
+        }
         return result;
     }
 
+/////////////////////////////////////////////////---Метод вставки---/////////////////////////////////////////////////////
+
     /**
-     * Рекурсивный метод обратного симметричного обхода
-     * @param <T> тип элементов дерева
-     * @param node текущий узел
-     * @param result список для сохранения результатов
+     * Вставляет новый элемент в дерево. Повторная вставка существующего значения
+     * не изменяет дерево и не делает недействительными открытые итераторы.
+     * @param value значение для вставки
      */
-    private static <T> void traverseRNL(TreeNode<T> node, List<T> result) {
-        if (node != null) {
-            traverseLNR(node.right, result);
-            result.add(node.value);
-            traverseLNR(node.left, result);
+    public void insert(T value) {
+        int oldSize = size();
+        root = (balancing == Balancing.TREAP) ? insertTreap(root, value) : insertNode(root, value);
+        if (size() != oldSize) {
+            modCount++;
         }
     }
 
-/////////////////////////////////////////////////---Метод вставки---/////////////////////////////////////////////////////
+    /**
+     * Вставка в дерево без балансировки с обновлением размеров поддеревьев.
+     * Размеры увеличиваются при спуске; если значение уже есть, спуск повторяется
+     * с уменьшением размеров.
+     * @param root корень дерева
+     * @param value значение для вставки
+     * @return новый корень дерева
+     */
+    private TreeNode<T> insertNode(TreeNode<T> root, T value) {
+        if (root == null) return new TreeNode<>(value);
+
+        TreeNode<T> current = root;
+        while (true) {
+            int cmp = value.compareTo(current.value);
+            if (cmp == 0) {
+                // Дубликат: откат увеличенных размеров
+                for (TreeNode<T> node = root; node != current; node = next(node, value)) {
+                    node.count--;
+                }
+                return root;
+            }
+            current.count++;
+            TreeNode<T> child = (cmp < 0) ? current.left : current.right;
+            if (child == null) {
+                if (cmp < 0) current.left = new TreeNode<>(value);
+                else current.right = new TreeNode<>(value);
+                return root;
+            }
+            current = child;
+        }
+    }
+
+    /**
+     * Возвращает потомка, в сторону которого лежит значение.
+     * @param node текущий узел
+     * @param value искомое значение
+     * @return левый или правый потомок
+     */
+    private TreeNode<T> next(TreeNode<T> node, T value) {
+        return (value.compareTo(node.value) < 0) ? node.left : node.right;
+    }
 
     /**
-     * Вставляет новый элемент в дерево
+     * Рекурсивная вставка в декартово дерево: узел добавляется как лист,
+     * а затем поднимается поворотами, пока его приоритет больше приоритета родителя.
+     * Глубина рекурсии равна глубине дерева, то есть ожидаемо O(log n).
+     * @param node корень поддерева
      * @param value значение для вставки
+     * @return новый корень поддерева
      */
-    public void insert(T value) {
-        root = insert(root, value);
+    private TreeNode<T> insertTreap(TreeNode<T> node, T value) {
+        if (node == null) return new TreapNode<>(value, random.nextInt());
+
+        int cmp = value.compareTo(node.value);
+        if (cmp < 0) {
+            node.left = insertTreap(node.left, value);
+            if (priority(node.left) > priority(node)) node = rotateRight(node);
+        } else if (cmp > 0) {
+            node.right = insertTreap(node.right, value);
+            if (priority(node.right) > priority(node)) node = rotateLeft(node);
+        }
+        updateCount(node);
+        return node;
     }
 
     /**
@@ -218,6 +331,7 @@ public class BinSTree<T extends Comparable<T>> implements Iterable<T> {
      */
     public void clear() {
         root = null;
+        modCount++;
     }
 
 ////////////////////////////////////////////---Метод глубины дерева---////////////////////////////////////////////////
@@ -237,18 +351,30 @@ public class BinSTree<T extends Comparable<T>> implements Iterable<T> {
      * @return глубина поддерева
      */
     public static <T> int depth(TreeNode<T> node) {
+        // Обход по уровням: глубина равна количеству непустых уровней
         if (node == null) return 0;
-        return 1 + Math.max(depth(node.left), depth(node.right));
+        Deque<TreeNode<T>> level = new ArrayDeque<>();
+        level.add(node);
+        int depth = 0;
+        while (!level.isEmpty()) {
+            depth++;
+            for (int i = level.size(); i > 0; i--) {
+                TreeNode<T> current = level.poll();
+                if (current.left != null) level.add(current.left);
+                if (current.right != null) level.add(current.right);
+            }
+        }
+        return depth;
     }
 
 ///////////////////////////////////////---Метод количество узлов в дереве---///////////////////////////////////////////
 
     /**
-     * Подсчитывает количество узлов в дереве
+     * Возвращает количество узлов в дереве за O(1) по сохраненному размеру корня
      * @return размер дерева
      */
     public int size() {
-        return size(root);
+        return count(root);
     }
 
     /**
@@ -259,56 +385,427 @@ public class BinSTree<T extends Comparable<T>> implements Iterable<T> {
      */
     public static <T> int size(TreeNode<T> node) {
         if (node == null) return 0;
-        return 1 + size(node.left) + size(node.right);
+        Deque<TreeNode<T>> stack = new ArrayDeque<>();
+        stack.push(node);
+        int size = 0;
+        while (!stack.isEmpty()) {
+            TreeNode<T> current = stack.pop();
+            size++;
+            if (current.left != null) stack.push(current.left);
+            if (current.right != null) stack.push(current.right);
+        }
+        return size;
+    }
+
+//////////////////////////////////////---Порядковые статистики---///////////////////////////////////////////
+
+    /**
+     * Возвращает k-й по возрастанию элемент (нумерация с нуля) за время, пропорциональное глубине дерева
+     * @param k порядковый номер элемента
+     * @return элемент, перед которым в дереве ровно k меньших элементов
+     * @throws IndexOutOfBoundsException если k вне диапазона [0, size())
+     */
+    public T select(int k) {
+        if (k < 0 || k >= count(root)) {
+            throw new IndexOutOfBoundsException("Индекс " + k + " вне диапазона [0, " + count(root) + ")");
+        }
+        TreeNode<T> node = root;
+        while (true) {
+            int leftCount = count(node.left);
+            if (k < leftCount) {
+                node = node.left;
+            } else if (k > leftCount) {
+                k -= leftCount + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество элементов дерева, меньших заданного.
+     * Для присутствующего элемента это его порядковый номер (select(rank(value)) == value).
+     * @param value значение
+     * @return количество меньших элементов
+     */
+    public int rank(T value) {
+        int rank = 0;
+        TreeNode<T> node = root;
+        while (node != null) {
+            int cmp = value.compareTo(node.value);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += count(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + count(node.left);
+            }
+        }
+        return rank;
+    }
+
+//////////////////////////////////////---Навигация и диапазоны---///////////////////////////////////////////
+
+    /**
+     * Возвращает минимальный элемент дерева
+     * @return минимальный элемент или null, если дерево пустое
+     */
+    public T first() {
+        TreeNode<T> node = root;
+        if (node == null) return null;
+        while (node.left != null) node = node.left;
+        return node.value;
+    }
+
+    /**
+     * Возвращает максимальный элемент дерева
+     * @return максимальный элемент или null, если дерево пустое
+     */
+    public T last() {
+        TreeNode<T> node = root;
+        if (node == null) return null;
+        while (node.right != null) node = node.right;
+        return node.value;
+    }
+
+    /**
+     * Возвращает наибольший элемент, не превосходящий заданное значение
+     * @param value значение
+     * @return найденный элемент или null
+     */
+    public T floor(T value) {
+        return below(value, true);
+    }
+
+    /**
+     * Возвращает наибольший элемент, строго меньший заданного значения
+     * @param value значение
+     * @return найденный элемент или null
+     */
+    public T lower(T value) {
+        return below(value, false);
+    }
+
+    /**
+     * Возвращает наименьший элемент, не меньший заданного значения
+     * @param value значение
+     * @return найденный элемент или null
+     */
+    public T ceiling(T value) {
+        return above(value, true);
+    }
+
+    /**
+     * Возвращает наименьший элемент, строго больший заданного значения
+     * @param value значение
+     * @return найденный элемент или null
+     */
+    public T higher(T value) {
+        return above(value, false);
+    }
+
+    /**
+     * Возвращает ленивый итератор по элементам диапазона [lo, hi) в порядке возрастания.
+     * Начало диапазона находится спуском от корня, элементы вне диапазона не просматриваются.
+     * @param lo нижняя граница, включается
+     * @param hi верхняя граница, не включается
+     * @return итератор по элементам диапазона (поддерживает remove())
+     */
+    public Iterator<T> range(T lo, T hi) {
+        return new BinSTreeIterator<>(this, lo, hi);
+    }
+
+    /**
+     * Поиск наибольшего элемента, меньшего заданного (или равного ему, если inclusive)
+     * @param value значение
+     * @param inclusive допускается ли равенство
+     * @return найденный элемент или null
+     */
+    private T below(T value, boolean inclusive) {
+        T result = null;
+        TreeNode<T> node = root;
+        while (node != null) {
+            int cmp = value.compareTo(node.value);
+            if (cmp > 0 || (inclusive && cmp == 0)) {
+                result = node.value;
+                if (cmp == 0) break;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Поиск наименьшего элемента, большего заданного (или равного ему, если inclusive)
+     * @param value значение
+     * @param inclusive допускается ли равенство
+     * @return найденный элемент или null
+     */
+    private T above(T value, boolean inclusive) {
+        T result = null;
+        TreeNode<T> node = root;
+        while (node != null) {
+            int cmp = value.compareTo(node.value);
+            if (cmp < 0 || (inclusive && cmp == 0)) {
+                result = node.value;
+                if (cmp == 0) break;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return result;
     }
 
 ///////////////////////////////////////////---Дополнительные методы---///////////////////////////////////////////
 ///////////////////////////////////////////---Метод удаления узла---/////////////////////////////////////////////
 
     /**
-     * Удаляет узел с заданным значением
+     * Удаляет узел с заданным значением. Удаление отсутствующего значения
+     * не изменяет дерево и не делает недействительными открытые итераторы.
      * @param value значение для удаления
      */
     public void remove(T value) {
-        root = removeRec(root, value);
+        int oldSize = size();
+        root = (balancing == Balancing.TREAP) ? removeTreap(root, value) : removeNode(root, value);
+        if (size() != oldSize) {
+            modCount++;
+        }
     }
 
     /**
-     * Рекурсивный метод удаления узла
+     * Рекурсивное удаление из декартова дерева: найденный узел опускается поворотами
+     * в сторону потомка с большим приоритетом, пока у него не останется одного потомка.
+     * Глубина рекурсии, как и при вставке, ожидаемо O(log n).
      * @param node текущий узел
      * @param value значение для удаления
      * @return новый корень поддерева
      */
-    private TreeNode<T> removeRec(TreeNode<T> node, T value) {
+    private TreeNode<T> removeTreap(TreeNode<T> node, T value) {
         if (node == null) return null;
 
         int cmp = value.compareTo(node.value);
         if (cmp < 0) {
-            node.left = removeRec(node.left, value);
+            node.left = removeTreap(node.left, value);
         } else if (cmp > 0) {
-            node.right = removeRec(node.right, value);
+            node.right = removeTreap(node.right, value);
         } else {
             if (node.left == null) return node.right;
             if (node.right == null) return node.left;
 
-            node.value = minValue(node.right).value;
-            node.right = removeRec(node.right, node.value);
+            if (priority(node.left) > priority(node.right)) {
+                node = rotateRight(node);
+                node.right = removeTreap(node.right, value);
+            } else {
+                node = rotateLeft(node);
+                node.left = removeTreap(node.left, value);
+            }
         }
-
+        updateCount(node);
         return node;
     }
 
     /**
-     * Находит узел с минимальным значением в поддереве
+     * Правый поворот: левый потомок становится корнем поддерева.
      * @param node корень поддерева
-     * @return узел с минимальным значением
+     * @return новый корень поддерева
      */
-    private TreeNode<T> minValue(TreeNode<T> node) {
-        while (node.left != null){
-            node = node.left;
+    private static <T> TreeNode<T> rotateRight(TreeNode<T> node) {
+        TreeNode<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        updateCount(node);
+        updateCount(left);
+        return left;
+    }
+
+    /**
+     * Левый поворот: правый потомок становится корнем поддерева.
+     * @param node корень поддерева
+     * @return новый корень поддерева
+     */
+    private static <T> TreeNode<T> rotateLeft(TreeNode<T> node) {
+        TreeNode<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        updateCount(node);
+        updateCount(right);
+        return right;
+    }
+
+    /**
+     * Пересчитывает размер поддерева узла по его потомкам.
+     * @param node узел для обновления
+     */
+    private static void updateCount(TreeNode<?> node) {
+        node.count = 1 + count(node.left) + count(node.right);
+    }
+
+    /**
+     * Возвращает сохраненный размер поддерева.
+     * @param node корень поддерева
+     * @return количество узлов (0 для null)
+     */
+    private static int count(TreeNode<?> node) {
+        return (node == null) ? 0 : node.count;
+    }
+
+    /**
+     * Возвращает приоритет узла декартова дерева.
+     * @param node узел (TreapNode)
+     * @return приоритет узла
+     */
+    private static int priority(TreeNode<?> node) {
+        return ((TreapNode<?>) node).priority;
+    }
+
+    /**
+     * Удаление узла без рекурсии (для дерева без балансировки).
+     * Узел с двумя потомками получает значение преемника, а сам преемник
+     * (у него нет левого потомка) вырезается из дерева.
+     * @param root корень дерева
+     * @param value значение для удаления
+     * @return новый корень дерева
+     */
+    private TreeNode<T> removeNode(TreeNode<T> root, T value) {
+        TreeNode<T> parent = null;
+        TreeNode<T> node = root;
+        while (node != null) {
+            int cmp = value.compareTo(node.value);
+            if (cmp == 0) break;
+            parent = node;
+            node = (cmp < 0) ? node.left : node.right;
+        }
+        if (node == null) return root;
+
+        // Уменьшение размеров на пути от корня до удаляемого узла
+        for (TreeNode<T> p = root; p != node; p = next(p, value)) {
+            p.count--;
+        }
+        node.count--;
+
+        if (node.left != null && node.right != null) {
+            // Поиск преемника - минимального узла правого поддерева
+            TreeNode<T> successorParent = node;
+            TreeNode<T> successor = node.right;
+            while (successor.left != null) {
+                successor.count--;
+                successorParent = successor;
+                successor = successor.left;
+            }
+            node.value = successor.value;
+            if (successorParent == node) {
+                successorParent.right = successor.right;
+            } else {
+                successorParent.left = successor.right;
+            }
+            return root;
+        }
+
+        TreeNode<T> child = (node.left != null) ? node.left : node.right;
+        if (parent == null) return child;
+        if (parent.left == node) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+        return root;
+    }
+///////////////////////////////////////---Построение и перестройка---///////////////////////////////////////////
+
+    /**
+     * Строит сбалансированное дерево (без режима балансировки) из строго возрастающей
+     * последовательности за O(n): средний элемент каждого диапазона становится корнем
+     * @param values значения в порядке возрастания без повторов
+     * @return новое дерево минимальной глубины
+     * @throws IllegalArgumentException если значения не упорядочены строго по возрастанию
+     */
+    public static <T extends Comparable<T>> BinSTree<T> fromSorted(Iterable<? extends T> values) {
+        List<TreeNode<T>> nodes = new ArrayList<>();
+        for (T value : values) {
+            nodes.add(new TreeNode<>(value));
+        }
+        return fromNodes(nodes);
+    }
+
+    /**
+     * Строит сбалансированное дерево (без режима балансировки) из упорядоченного массива за O(n)
+     * @param values массив значений в порядке возрастания без повторов
+     * @return новое дерево минимальной глубины
+     * @throws IllegalArgumentException если значения не упорядочены строго по возрастанию
+     */
+    public static <T extends Comparable<T>> BinSTree<T> fromSortedArray(T[] values) {
+        List<TreeNode<T>> nodes = new ArrayList<>(values.length);
+        for (T value : values) {
+            nodes.add(new TreeNode<>(value));
+        }
+        return fromNodes(nodes);
+    }
+
+    /**
+     * Проверяет порядок узлов и связывает их в дерево.
+     * @param nodes узлы в порядке возрастания значений
+     * @return новое дерево
+     * @throws IllegalArgumentException если значения не упорядочены строго по возрастанию
+     */
+    private static <T extends Comparable<T>> BinSTree<T> fromNodes(List<TreeNode<T>> nodes) {
+        for (int i = 1; i < nodes.size(); i++) {
+            if (nodes.get(i - 1).value.compareTo(nodes.get(i).value) >= 0) {
+                throw new IllegalArgumentException("Значения должны быть строго упорядочены по возрастанию (позиция " + i + ")");
+            }
+        }
+        BinSTree<T> tree = new BinSTree<>();
+        tree.root = link(nodes, 0, nodes.size());
+        return tree;
+    }
+
+    /**
+     * Перестраивает дерево в сбалансированное на месте: узлы собираются в массив
+     * симметричным обходом и заново связываются так, что глубина становится минимальной.
+     * Новые узлы не создаются. В режиме TREAP форма дерева определяется приоритетами,
+     * и оно уже сбалансировано с высокой вероятностью, поэтому там метод ничего не делает.
+     */
+    public void rebuild() {
+        if (balancing == Balancing.TREAP || root == null) return;
+
+        List<TreeNode<T>> nodes = new ArrayList<>(count(root));
+        Deque<TreeNode<T>> stack = new ArrayDeque<>();
+        TreeNode<T> current = root;
+        while (current != null || !stack.isEmpty()) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+            current = stack.pop();
+            nodes.add(current);
+            current = current.right;
         }
+        root = link(nodes, 0, nodes.size());
+        modCount++;
+    }
+
+    /**
+     * Рекурсивно связывает узлы [from, to) в поддерево со средним узлом в корне
+     * и пересчитывает размеры поддеревьев. Глубина рекурсии - O(log n).
+     * @param nodes узлы в порядке возрастания значений
+     * @param from начало диапазона (включительно)
+     * @param to конец диапазона (не включительно)
+     * @return корень поддерева или null для пустого диапазона
+     */
+    private static <T> TreeNode<T> link(List<TreeNode<T>> nodes, int from, int to) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        TreeNode<T> node = nodes.get(mid);
+        node.left = link(nodes, from, mid);
+        node.right = link(nodes, mid + 1, to);
+        updateCount(node);
         return node;
     }
+
 ///////////////////////////////////////---Метод глубокого копирования---///////////////////////////////////////////
 
     /**
@@ -316,35 +813,83 @@ public class BinSTree<T extends Comparable<T>> implements Iterable<T> {
      * @return новая независимая копия дерева
      */
     public BinSTree<T> deepCopy() {
-        BinSTree<T> copy = new BinSTree<>();
-        copy.root = deepCopyRec(root);
+        BinSTree<T> copy = new BinSTree<>(balancing);
+        copy.root = deepCopyNodes(root);
         return copy;
     }
 
     /**
-     * Рекурсивный метод создания глубокой копии поддерева
+     * Создает глубокую копию поддерева без рекурсии: узлы исходного дерева и их копии
+     * обходятся параллельно с помощью явного стека.
      * @param node корень поддерева для копирования
      * @return корень скопированного поддерева
      */
-    private TreeNode<T> deepCopyRec(TreeNode<T> node) {
+    private TreeNode<T> deepCopyNodes(TreeNode<T> node) {
         if (node == null) return null;
 
-        TreeNode<T> newNode = new TreeNode<>(node.value);
-        newNode.left = deepCopyRec(node.left);
-        newNode.right = deepCopyRec(node.right);
+        TreeNode<T> newRoot = copyNode(node);
+        Deque<TreeNode<T>> sources = new ArrayDeque<>();
+        Deque<TreeNode<T>> copies = new ArrayDeque<>();
+        sources.push(node);
+        copies.push(newRoot);
+
+        while (!sources.isEmpty()) {
+            TreeNode<T> source = sources.pop();
+            TreeNode<T> copy = copies.pop();
+            if (source.left != null) {
+                copy.left = copyNode(source.left);
+                sources.push(source.left);
+                copies.push(copy.left);
+            }
+            if (source.right != null) {
+                copy.right = copyNode(source.right);
+                sources.push(source.right);
+                copies.push(copy.right);
+            }
+        }
+        return newRoot;
+    }
 
-        return newNode;
+    /**
+     * Копирует один узел без потомков, сохраняя приоритет узла декартова дерева.
+     * @param node исходный узел
+     * @return новый узел с тем же значением
+     */
+    private TreeNode<T> copyNode(TreeNode<T> node) {
+        TreeNode<T> copy = (node instanceof TreapNode)
+                ? new TreapNode<>(node.value, ((TreapNode<T>) node).priority)
+                : new TreeNode<>(node.value);
+        copy.count = node.count;
+        return copy;
     }
 
 /////////////////////////////////////////////////---Метод для Итератора---/////////////////////////////////////////////////////
 
     /**
-     * Возвращает итератор для обхода дерева
+     * Возвращает итератор для обхода дерева.
+     * Итератор поддерживает remove() и бросает ConcurrentModificationException,
+     * если дерево изменено в обход итератора.
      * @return итератор в порядке LNR (симметричный обход)
      */
     @Override
     public Iterator<T> iterator() {
-        return new BinSTreeIterator<>(root);
+        return new BinSTreeIterator<>(this);
+    }
+
+    /**
+     * Возвращает корень дерева (для итератора).
+     * @return корневой узел или null
+     */
+    TreeNode<T> getRoot() {
+        return root;
+    }
+
+    /**
+     * Возвращает счетчик изменений дерева (для итератора).
+     * @return количество выполненных изменений
+     */
+    int getModCount() {
+        return modCount;
     }
 
 }
\ No newline at end of file
@@ -1,31 +1,78 @@
 package Zabgu;
 
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.Stack;
+import java.util.function.Consumer;
 
 /**
  * Итератор для симметричного обхода (LNR) бинарного дерева поиска.
  * Реализует интерфейс Iterator<T> для последовательного доступа к элементам дерева.
+ * Может ограничивать обход диапазоном [lo, hi): начальная позиция находится спуском
+ * от корня за время, пропорциональное глубине дерева, а обход останавливается на hi.
  * @param <T> тип элементов дерева, должен реализовывать Comparable<T>
  */
 public class BinSTreeIterator<T extends Comparable<T>> implements Iterator<T> {
     /**
      * Стек для хранения узлов дерева при обходе.
      * Позволяет организовать нерекурсивный симметричный обход.
+     * Реализован на массиве без синхронизации (в отличие от java.util.Stack) и заранее
+     * рассчитан на высоту сбалансированного дерева; для вырожденного дерева он удваивается.
      */
-    private final Stack<TreeNode<T>> stack = new Stack<>();
+    private TreeNode<T>[] stack;
+    private int top;                    // Количество узлов в стеке
+    private final BinSTree<T> tree;     // Дерево для remove() и проверки изменений (null - только чтение)
+    private int expectedModCount;       // Ожидаемое значение счетчика изменений дерева
+    private T lastValue;                // Последнее возвращенное значение
+    private boolean canRemove;          // Можно ли вызвать remove()
+    private final T hi;                 // Верхняя граница обхода, не включается (null - без границы)
 
     /**
      * Конструктор итератора.
      * Инициализирует обход, начиная с корневого узла.
+     * Итератор только для чтения: remove() не поддерживается.
      *
      * @param root корневой узел дерева или поддерева для обхода
      */
     public BinSTreeIterator(TreeNode<T> root) {
+        this.tree = null;
+        this.hi = null;
+        this.stack = allocateStack(root);
         pushLeft(root);
     }
 
+    /**
+     * Конструктор итератора по дереву.
+     * Поддерживает remove() и бросает ConcurrentModificationException,
+     * если дерево изменено в обход итератора.
+     *
+     * @param tree дерево для обхода
+     */
+    public BinSTreeIterator(BinSTree<T> tree) {
+        this(tree, null, null);
+    }
+
+    /**
+     * Конструктор итератора по диапазону [lo, hi) дерева.
+     * Поддерживает remove() и проверку изменений дерева так же, как итератор по всему дереву.
+     *
+     * @param tree дерево для обхода
+     * @param lo нижняя граница, включается (null - от минимального элемента)
+     * @param hi верхняя граница, не включается (null - до максимального элемента)
+     */
+    public BinSTreeIterator(BinSTree<T> tree, T lo, T hi) {
+        this.tree = tree;
+        this.hi = hi;
+        this.expectedModCount = tree.getModCount();
+        this.stack = allocateStack(tree.getRoot());
+        if (lo == null) {
+            pushLeft(tree.getRoot());
+        } else {
+            seek(lo, true);
+        }
+    }
+
     /**
      * Вспомогательный метод для добавления всех левых потомков в стек.
      * Используется для инициализации и продолжения обхода.
@@ -34,11 +81,47 @@ public class BinSTreeIterator<T extends Comparable<T>> implements Iterator<T> {
      */
     private void pushLeft(TreeNode<T> node) {
         while (node != null) {
-            stack.push(node);
+            push(node);
             node = node.left;
         }
     }
 
+    /**
+     * Создает массив стека по размеру дерева: 3 * log2(n) + 1 ячеек хватает для AVL-дерева
+     * и, с большим запасом по вероятности, для декартова дерева.
+     *
+     * @param root корень дерева (размер берется из сохраненного в нем количества узлов)
+     * @return пустой массив стека
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> TreeNode<T>[] allocateStack(TreeNode<T> root) {
+        int count = (root == null) ? 0 : root.count;
+        return (TreeNode<T>[]) new TreeNode<?>[3 * (32 - Integer.numberOfLeadingZeros(count)) + 1];
+    }
+
+    /**
+     * Добавляет узел на вершину стека, удваивая массив при переполнении.
+     *
+     * @param node узел для добавления
+     */
+    private void push(TreeNode<T> node) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top++] = node;
+    }
+
+    /**
+     * Снимает узел с вершины стека.
+     *
+     * @return узел с вершины стека
+     */
+    private TreeNode<T> pop() {
+        TreeNode<T> node = stack[--top];
+        stack[top] = null;
+        return node;
+    }
+
     /**
      * Проверяет наличие следующего элемента в обходе.
      *
@@ -46,7 +129,7 @@ public class BinSTreeIterator<T extends Comparable<T>> implements Iterator<T> {
      */
     @Override
     public boolean hasNext() {
-        return !stack.isEmpty();
+        return top > 0 && (hi == null || stack[top - 1].value.compareTo(hi) < 0);
     }
 
     /**
@@ -57,12 +140,94 @@ public class BinSTreeIterator<T extends Comparable<T>> implements Iterator<T> {
      */
     @Override
     public T next() {
+        if (tree != null && tree.getModCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
         if (!hasNext()) {
             throw new NoSuchElementException();
         }
 
-        TreeNode<T> node = stack.pop();
+        TreeNode<T> node = pop();
         pushLeft(node.right);
+        lastValue = node.value;
+        canRemove = true;
         return node.value;
     }
+
+    /**
+     * Применяет действие ко всем оставшимся элементам обхода одним циклом,
+     * без отдельных вызовов hasNext() и next() для каждого элемента.
+     *
+     * @param action действие над элементом
+     * @throws ConcurrentModificationException если дерево изменено в обход итератора
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (top > 0) {
+            if (tree != null && tree.getModCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            TreeNode<T> node = stack[top - 1];
+            if (hi != null && node.value.compareTo(hi) >= 0) {
+                break;
+            }
+            top--;
+            stack[top] = null;
+            for (TreeNode<T> child = node.right; child != null; child = child.left) {
+                push(child);
+            }
+            lastValue = node.value;
+            canRemove = true;
+            action.accept(node.value);
+        }
+    }
+
+    /**
+     * Удаляет из дерева последний возвращенный элемент.
+     * При удалении узла с двумя потомками в него копируется значение преемника,
+     * поэтому стек пересобирается спуском от корня к первому значению, большему удаленного.
+     *
+     * @throws UnsupportedOperationException если итератор создан по узлу, а не по дереву
+     * @throws IllegalStateException если next() не вызывался или элемент уже удален
+     * @throws ConcurrentModificationException если дерево изменено в обход итератора
+     */
+    @Override
+    public void remove() {
+        if (tree == null) {
+            throw new UnsupportedOperationException("Итератор по узлу не поддерживает удаление");
+        }
+        if (!canRemove) {
+            throw new IllegalStateException();
+        }
+        if (tree.getModCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        tree.remove(lastValue);
+        expectedModCount = tree.getModCount();
+        canRemove = false;
+        seek(lastValue, false);
+    }
+
+    /**
+     * Заполняет стек заново спуском от корня так, чтобы на вершине оказался
+     * первый элемент, не меньший (inclusive) или больший (!inclusive) заданного.
+     * В стек попадают только узлы, в которых спуск ушел влево.
+     *
+     * @param bound граница поиска
+     * @param inclusive включается ли сама граница
+     */
+    private void seek(T bound, boolean inclusive) {
+        Arrays.fill(stack, 0, top, null);
+        top = 0;
+        TreeNode<T> node = tree.getRoot();
+        while (node != null) {
+            int cmp = node.value.compareTo(bound);
+            if (cmp > 0 || (inclusive && cmp == 0)) {
+                push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+    }
 }
\ No newline at end of file
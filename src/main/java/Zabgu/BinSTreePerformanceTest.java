@@ -1,5 +1,6 @@
 package Zabgu;
 
+import java.util.Iterator;
 import java.util.Random;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartFrame;
@@ -68,6 +69,73 @@ public class BinSTreePerformanceTest {
         createChart(times);
     }
 
+    /**
+     * Сравнивает вставку и поиск упорядоченных значений в обычном дереве и в режиме TREAP.
+     * Без балансировки упорядоченные вставки вырождают дерево в список,
+     * поэтому время растет квадратично.
+     */
+    public static void testSortedInsert() {
+        System.out.println("\nВставка и поиск упорядоченных значений (мс):");
+        System.out.println("Размер  | NONE     | TREAP");
+        System.out.println("------------------------------");
+
+        int[] sizes = {1_000, 5_000, 20_000};
+        for (int size : sizes) {
+            long[] times = new long[2];
+            BinSTree.Balancing[] modes = {BinSTree.Balancing.NONE, BinSTree.Balancing.TREAP};
+            for (int m = 0; m < modes.length; m++) {
+                long startTime = System.nanoTime();
+                BinSTree<Integer> tree = new BinSTree<>(modes[m]);
+                for (int value = 0; value < size; value++) {
+                    tree.insert(value);
+                }
+                for (int value = 0; value < size; value++) {
+                    tree.find(value);
+                }
+                times[m] = (System.nanoTime() - startTime) / 1_000_000;
+            }
+            System.out.printf("%6d  | %8d | %8d%n", size, times[0], times[1]);
+        }
+    }
+
+    /**
+     * Сравнивает полный обход дерева из 1 000 000 элементов через hasNext()/next()
+     * и через forEachRemaining().
+     */
+    public static void testIterationPerformance() {
+        System.out.println("\nОбход 1 000 000 элементов (мс):");
+        System.out.println("Способ            | время");
+        System.out.println("---------------------------");
+
+        BinSTree<Integer> tree = new BinSTree<>(BinSTree.Balancing.TREAP);
+        Random rand = new Random();
+        while (tree.size() < 1_000_000) {
+            tree.insert(rand.nextInt());
+        }
+
+        // Лучшее время из нескольких повторов, чтобы исключить прогрев JIT и сборку мусора
+        long nextTime = Long.MAX_VALUE;
+        long forEachTime = Long.MAX_VALUE;
+        long sum = 0;
+        long[] total = {0};
+        for (int round = 0; round < 5; round++) {
+            long startTime = System.nanoTime();
+            sum = 0;
+            for (Iterator<Integer> it = tree.iterator(); it.hasNext(); ) {
+                sum += it.next();
+            }
+            nextTime = Math.min(nextTime, (System.nanoTime() - startTime) / 1_000_000);
+
+            total[0] = 0;
+            startTime = System.nanoTime();
+            tree.iterator().forEachRemaining(value -> total[0] += value);
+            forEachTime = Math.min(forEachTime, (System.nanoTime() - startTime) / 1_000_000);
+        }
+        System.out.printf("%-17s | %5d%n", "hasNext()/next()", nextTime);
+        System.out.printf("%-17s | %5d%n", "forEachRemaining", forEachTime);
+        System.out.println("(контрольные суммы совпадают: " + (sum == total[0]) + ")");
+    }
+
     /**
      * Создает и отображает график зависимости времени поиска от размера дерева.
      *
@@ -1,6 +1,10 @@
 package Zabgu;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -15,12 +19,25 @@ public class BinSTreeTests {
      * 1. TreeNode - базовой структуры узла
      * 2. BinSTree - основных операций дерева
      * 3. BinSTreeIterator - итератора дерева
+     * 4. Режима балансировки TREAP
+     * 5. Операций над вырожденным деревом
+     * 6. Порядковых статистик (select, rank)
+     * 7. Навигационных методов и диапазонов
+     * 8. Обхода через forEachRemaining
+     * 9. Построения из упорядоченных данных и перестройки
      */
     public static void BinSTreeShow(){
         System.out.println("\nЗапуск тестов....");
         testTreeNode();
         testBinSTree();
         testBinSTreeIterator();
+        testBinSTreeIteratorRemove();
+        testTreap();
+        testDegenerateTree();
+        testOrderStatistics();
+        testNavigation();
+        testForEachRemaining();
+        testBulkBuild();
     }
 
     /**
@@ -119,4 +136,292 @@ public class BinSTreeTests {
         }
         assert exceptionThrown : "Должно бросаться исключение при попытке next() после окончания элементов";
     }
+
+    /**
+     * Тестирует удаление через итератор (BinSTreeIterator.remove).
+     * Проверяет:
+     * - Удаление элементов за один проход, включая узлы с двумя потомками
+     * - Генерацию ConcurrentModificationException при изменении дерева в обход итератора
+     */
+    public static void testBinSTreeIteratorRemove() {
+
+        BinSTree<Integer> tree = new BinSTree<>();
+        for (int value : new int[]{50, 30, 70, 20, 40, 60, 80, 35, 45, 65}) {
+            tree.insert(value);
+        }
+
+        StringBuilder visited = new StringBuilder();
+        Iterator<Integer> it = tree.iterator();
+        while (it.hasNext()) {
+            int value = it.next();
+            visited.append(value).append(" ");
+            if (value == 30 || value == 50 || value == 70) {
+                it.remove();
+            }
+        }
+        assert visited.toString().trim().equals("20 30 35 40 45 50 60 65 70 80") : "Каждый элемент должен быть пройден один раз";
+        assert tree.traverseLNR().equals(List.of(20, 35, 40, 45, 60, 65, 80)) : "Удаленные элементы не должны оставаться в дереве";
+
+        Iterator<Integer> unchanged = tree.iterator();
+        unchanged.next();
+        tree.insert(35);
+        tree.remove(1000);
+        assert unchanged.next() == 35 : "Вставка дубликата и удаление отсутствующего значения не изменяют дерево";
+
+        Iterator<Integer> stale = tree.iterator();
+        stale.next();
+        tree.insert(100);
+        boolean exceptionThrown = false;
+        try {
+            stale.next();
+        } catch (ConcurrentModificationException e) {
+            exceptionThrown = true;
+        }
+        assert exceptionThrown : "Итератор должен обнаруживать изменение дерева";
+
+        System.out.println("Тестирование удаления через итератор.....Завершено.");
+    }
+
+    /**
+     * Тестирует режим балансировки TREAP (декартово дерево).
+     * Проверяет:
+     * - Логарифмическую глубину при вставке упорядоченных значений
+     * - Поиск, удаление и порядок обхода
+     * - Сохранение режима и структуры при глубоком копировании
+     */
+    public static void testTreap() {
+
+        BinSTree<Integer> tree = new BinSTree<>(BinSTree.Balancing.TREAP);
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            tree.insert(i);
+        }
+        tree.insert(42);
+        assert tree.size() == count : "Повторная вставка не должна добавлять узел";
+        assert tree.depth() < 100 : "Глубина декартова дерева должна быть логарифмической, а не " + tree.depth();
+
+        for (int i = 0; i < count; i += 2) {
+            tree.remove(i);
+        }
+        assert tree.size() == count / 2 : "Размер должен уменьшиться вдвое после удаления";
+        for (int i = 0; i < 1000; i++) {
+            assert (tree.find(i) != null) == (i % 2 == 1) : "Неверный результат поиска для " + i;
+        }
+
+        int previous = -1;
+        for (int value : tree) {
+            assert value > previous : "Итератор должен возвращать значения по возрастанию";
+            previous = value;
+        }
+
+        BinSTree<Integer> copy = tree.deepCopy();
+        assert copy.getBalancing() == BinSTree.Balancing.TREAP : "Копия должна сохранять режим балансировки";
+        assert copy.depth() == tree.depth() : "Копия должна сохранять структуру дерева";
+        for (int i = count; i < count + 1000; i++) {
+            copy.insert(i);
+        }
+        assert copy.depth() < 100 && tree.size() == count / 2 : "Копия должна оставаться сбалансированной и независимой";
+
+        System.out.println("Тестирование TREAP.....Завершено.");
+    }
+
+    /**
+     * Тестирует операции над вырожденным деревом (упорядоченные вставки без балансировки).
+     * Глубина дерева равна количеству узлов, поэтому проверяется, что depth, size,
+     * обходы, удаление и глубокое копирование не используют стек вызовов.
+     */
+    public static void testDegenerateTree() {
+
+        BinSTree<Integer> tree = new BinSTree<>();
+        int count = 20_000;
+        for (int i = 0; i < count; i++) {
+            tree.insert(i);
+        }
+        assert tree.depth() == count : "Глубина вырожденного дерева должна быть равна размеру";
+        assert tree.size() == count : "Размер должен быть " + count;
+
+        List<Integer> lnr = tree.traverseLNR();
+        List<Integer> rnl = tree.traverseRNL();
+        assert lnr.size() == count && lnr.get(0) == 0 && lnr.get(count - 1) == count - 1 : "LNR обход должен идти по возрастанию";
+        assert rnl.size() == count && rnl.get(0) == count - 1 && rnl.get(count - 1) == 0 : "RNL обход должен идти по убыванию";
+
+        BinSTree<Integer> copy = tree.deepCopy();
+        assert copy.depth() == count : "Копия должна сохранять структуру дерева";
+
+        for (int i = count - 1; i >= count - 100; i--) {
+            tree.remove(i);
+        }
+        tree.remove(0);
+        assert tree.size() == count - 101 : "Удаление должно работать на вырожденном дереве";
+        assert copy.size() == count : "Копия не должна зависеть от исходного дерева";
+
+        BinSTree<Integer> mixed = new BinSTree<>();
+        for (int value : new int[]{50, 30, 70, 20, 40, 60, 80, 35, 45, 65}) {
+            mixed.insert(value);
+        }
+        assert mixed.traverseRNL().equals(List.of(80, 70, 65, 60, 50, 45, 40, 35, 30, 20)) : "RNL обход должен возвращать значения в обратном порядке";
+        mixed.remove(30);
+        mixed.remove(50);
+        assert mixed.traverseLNR().equals(List.of(20, 35, 40, 45, 60, 65, 70, 80)) : "Удаление узлов с двумя потомками";
+
+        System.out.println("Тестирование вырожденного дерева.....Завершено.");
+    }
+
+    /**
+     * Тестирует порядковые статистики в обоих режимах балансировки.
+     * Проверяет:
+     * - Размер дерева после вставок, повторных вставок и удалений
+     * - Соответствие select(k) отсортированному списку элементов
+     * - Значения rank() для присутствующих и отсутствующих элементов
+     */
+    public static void testOrderStatistics() {
+
+        for (BinSTree.Balancing balancing : BinSTree.Balancing.values()) {
+            BinSTree<Integer> tree = new BinSTree<>(balancing);
+            List<Integer> values = new ArrayList<>();
+            Random random = new Random(17);
+            for (int i = 0; i < 2000; i++) {
+                int value = random.nextInt(1000) * 2;
+                if (tree.find(value) == null) values.add(value);
+                tree.insert(value);
+            }
+            for (int i = 0; i < 500; i++) {
+                Integer value = values.remove(random.nextInt(values.size()));
+                tree.remove(value);
+            }
+            tree.remove(-1);
+            Collections.sort(values);
+
+            assert tree.size() == values.size() : "Размер дерева должен быть " + values.size() + " (" + balancing + ")";
+            assert tree.size() == BinSTree.size(tree.getRoot()) : "Сохраненный размер должен совпадать с подсчетом";
+            for (int k = 0; k < values.size(); k++) {
+                assert tree.select(k).equals(values.get(k)) : "select(" + k + ") неверен (" + balancing + ")";
+                assert tree.rank(values.get(k)) == k : "rank() неверен для " + values.get(k);
+                assert tree.rank(values.get(k) + 1) == k + 1 : "rank() неверен для отсутствующего " + (values.get(k) + 1);
+            }
+
+            boolean exceptionThrown = false;
+            try {
+                tree.select(values.size());
+            } catch (IndexOutOfBoundsException e) {
+                exceptionThrown = true;
+            }
+            assert exceptionThrown : "select() вне диапазона должен бросать исключение";
+        }
+
+        System.out.println("Тестирование select/rank.....Завершено.");
+    }
+
+    /**
+     * Тестирует навигационные методы и итератор по диапазону.
+     * Проверяет:
+     * - first, last, floor, ceiling, lower, higher для присутствующих и отсутствующих значений
+     * - Границы диапазона range(lo, hi) и удаление через итератор диапазона
+     */
+    public static void testNavigation() {
+
+        BinSTree<Integer> tree = new BinSTree<>();
+        assert tree.first() == null && tree.floor(5) == null : "Пустое дерево не имеет элементов";
+        for (int value : new int[]{50, 30, 70, 20, 40, 60, 80}) {
+            tree.insert(value);
+        }
+        assert tree.first() == 20 && tree.last() == 80 : "Неверные first()/last()";
+        assert tree.floor(45) == 40 && tree.floor(40) == 40 && tree.floor(10) == null : "Неверный floor()";
+        assert tree.ceiling(45) == 50 && tree.ceiling(50) == 50 && tree.ceiling(90) == null : "Неверный ceiling()";
+        assert tree.lower(40) == 30 && tree.lower(20) == null : "Неверный lower()";
+        assert tree.higher(40) == 50 && tree.higher(80) == null : "Неверный higher()";
+
+        StringBuilder sb = new StringBuilder();
+        Iterator<Integer> range = tree.range(30, 70);
+        while (range.hasNext()) {
+            sb.append(range.next()).append(" ");
+        }
+        assert sb.toString().trim().equals("30 40 50 60") : "Диапазон [30, 70) должен содержать 30 40 50 60";
+        assert !tree.range(31, 39).hasNext() : "Диапазон без элементов должен быть пуст";
+
+        range = tree.range(25, 65);
+        while (range.hasNext()) {
+            if (range.next() % 20 == 0) {
+                range.remove();
+            }
+        }
+        assert tree.traverseLNR().equals(List.of(20, 30, 50, 70, 80)) : "Удаление через итератор диапазона";
+
+        System.out.println("Тестирование навигации и диапазонов.....Завершено.");
+    }
+
+    /**
+     * Тестирует обход через forEachRemaining.
+     * Проверяет:
+     * - Продолжение обхода после нескольких вызовов next()
+     * - Рост стека итератора на вырожденном дереве
+     * - Остановку на верхней границе диапазона
+     */
+    public static void testForEachRemaining() {
+
+        BinSTree<Integer> tree = new BinSTree<>();
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(999 - i);
+        }
+        Iterator<Integer> it = tree.iterator();
+        it.next();
+        it.next();
+        List<Integer> rest = new ArrayList<>();
+        it.forEachRemaining(rest::add);
+        assert rest.size() == 998 && rest.get(0) == 2 && rest.get(997) == 999 : "forEachRemaining должен продолжить обход";
+        assert !it.hasNext() : "После forEachRemaining элементов не остается";
+
+        List<Integer> range = new ArrayList<>();
+        tree.range(100, 110).forEachRemaining(range::add);
+        assert range.equals(List.of(100, 101, 102, 103, 104, 105, 106, 107, 108, 109)) : "forEachRemaining должен останавливаться на границе диапазона";
+
+        List<Integer> copied = new ArrayList<>();
+        new BinSTreeIterator<>(tree.getRoot()).forEachRemaining(copied::add);
+        assert copied.equals(tree.traverseLNR()) : "Итератор по узлу должен обходить все элементы";
+
+        System.out.println("Тестирование forEachRemaining.....Завершено.");
+    }
+
+    /**
+     * Тестирует построение дерева из упорядоченных данных и перестройку.
+     * Проверяет:
+     * - Минимальную глубину деревьев, построенных fromSorted и fromSortedArray
+     * - Отказ для неупорядоченных данных
+     * - Перестройку вырожденного дерева на месте с сохранением элементов и размеров
+     */
+    public static void testBulkBuild() {
+
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1023; i++) {
+            values.add(i * 2);
+        }
+        BinSTree<Integer> tree = BinSTree.fromSorted(values);
+        assert tree.depth() == 10 && tree.size() == 1023 : "Дерево из 1023 элементов должно иметь глубину 10";
+        assert tree.traverseLNR().equals(values) : "Порядок элементов должен сохраниться";
+        assert tree.select(500) == 1000 && tree.rank(1001) == 501 : "Размеры поддеревьев должны быть вычислены";
+
+        BinSTree<Integer> fromArray = BinSTree.fromSortedArray(new Integer[]{1, 2, 3, 4, 5});
+        assert fromArray.depth() == 3 && fromArray.find(4) != null : "Неверное дерево из массива";
+
+        boolean exceptionThrown = false;
+        try {
+            BinSTree.fromSortedArray(new Integer[]{1, 3, 3});
+        } catch (IllegalArgumentException e) {
+            exceptionThrown = true;
+        }
+        assert exceptionThrown : "Повторы и неупорядоченные значения должны отклоняться";
+
+        BinSTree<Integer> skewed = new BinSTree<>();
+        for (int i = 0; i < 10_000; i++) {
+            skewed.insert(i);
+        }
+        skewed.rebuild();
+        assert skewed.depth() == 14 : "После перестройки глубина должна быть минимальной, а не " + skewed.depth();
+        assert skewed.size() == 10_000 && skewed.select(1234) == 1234 : "Перестройка должна сохранять элементы";
+        skewed.insert(-1);
+        skewed.remove(5000);
+        assert skewed.first() == -1 && skewed.find(5000) == null : "Дерево должно работать после перестройки";
+
+        System.out.println("Тестирование построения и перестройки.....Завершено.");
+    }
 }
@@ -0,0 +1,413 @@
+package Zabgu;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасный словарь с методом цепочек, построенный по той же схеме, что и Dictionary.
+ * Таблица разбита на сегменты, каждый из которых защищен собственной блокировкой
+ * (lock striping), поэтому записи в разные сегменты не мешают друг другу.
+ * Чтение выполняется без блокировок: ссылки next в цепочках неизменяемы, а новые
+ * цепочки и таблицы публикуются через volatile-запись, так что читатель всегда видит
+ * согласованную цепочку. Расширение выполняется поштучно для каждого сегмента тем потоком,
+ * который его заполнил, и затрагивает только элементы этого сегмента.
+ *
+ * @param <K> тип ключей, должен правильно реализовывать hashCode() и equals()
+ * @param <V> тип значений
+ */
+public class ConcurrentDictionary<K, V> implements Iterable<ConcurrentDictionary.Entry<K, V>> {
+    private static final int DEFAULT_CAPACITY = 16;             // Начальная емкость сегмента
+    private static final float LOAD_FACTOR = 0.75f;             // Коэффициент загрузки сегмента
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;    // Количество сегментов по умолчанию
+
+    private final Segment<K, V>[] segments;                     // Сегменты таблицы
+    private final int segmentShift;                             // Сдвиг хеша для выбора сегмента
+    private final int segmentMask;                              // Маска индекса сегмента
+
+    /**
+     * Создает пустой словарь с количеством сегментов по умолчанию.
+     */
+    public ConcurrentDictionary() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Создает пустой словарь.
+     * @param concurrencyLevel ожидаемое количество одновременно пишущих потоков
+     *                         (округляется вверх до степени двойки)
+     * @throws IllegalArgumentException если concurrencyLevel не положителен
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentDictionary(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Количество сегментов должно быть положительным");
+        }
+        int shift = 0;
+        int count = 1;
+        while (count < concurrencyLevel && count < (1 << 16)) {
+            count <<= 1;
+            shift++;
+        }
+        segmentShift = 32 - shift;
+        segmentMask = count - 1;
+        segments = (Segment<K, V>[]) new Segment<?, ?>[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(DEFAULT_CAPACITY);
+        }
+    }
+
+    /**
+     * Элемент словаря. Ключ, хеш и ссылка на следующий элемент неизменяемы,
+     * значение изменяется только под блокировкой сегмента.
+     */
+    public static final class Entry<K, V> {
+        final int hash;                         // Хеш ключа
+        final K key;                            // Ключ элемента
+        volatile V value;                       // Значение элемента
+        final Entry<K, V> next;                 // Следующий элемент в цепочке
+
+        Entry(int hash, K key, V value, Entry<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Сегмент словаря: отдельная таблица цепочек со своей блокировкой.
+     * Сериализуемость ReentrantLock сегментом не используется.
+     */
+    @SuppressWarnings("serial")
+    static final class Segment<K, V> extends ReentrantLock {
+        volatile AtomicReferenceArray<Entry<K, V>> table;   // Таблица цепочек сегмента
+        volatile int count;                                 // Количество элементов в сегменте
+        int threshold;                                      // Порог расширения
+
+        Segment(int capacity) {
+            table = new AtomicReferenceArray<>(capacity);
+            threshold = (int) (capacity * LOAD_FACTOR);
+        }
+
+        /**
+         * Поиск без блокировки.
+         */
+        V get(K key, int hash) {
+            AtomicReferenceArray<Entry<K, V>> tab = table;
+            for (Entry<K, V> e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+                if (e.hash == hash && e.key.equals(key)) {
+                    return e.value;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Добавление или обновление под блокировкой сегмента.
+         * Сегмент расширяется только при вставке нового ключа, но не при обновлении.
+         */
+        V put(K key, int hash, V value, boolean onlyIfAbsent) {
+            lock();
+            try {
+                AtomicReferenceArray<Entry<K, V>> tab = table;
+                int index = hash & (tab.length() - 1);
+                Entry<K, V> first = tab.get(index);
+                for (Entry<K, V> e = first; e != null; e = e.next) {
+                    if (e.hash == hash && e.key.equals(key)) {
+                        V oldValue = e.value;
+                        if (!onlyIfAbsent) {
+                            e.value = value;
+                        }
+                        return oldValue;
+                    }
+                }
+                int c = count;
+                if (c + 1 > threshold) {
+                    resize();
+                    tab = table;
+                    index = hash & (tab.length() - 1);
+                    first = tab.get(index);
+                }
+                tab.set(index, new Entry<>(hash, key, value, first));
+                count = c + 1;
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Удаление под блокировкой сегмента. Элементы перед удаляемым копируются,
+         * чтобы не изменять ссылки next, которые могут читать другие потоки.
+         */
+        V remove(K key, int hash) {
+            lock();
+            try {
+                AtomicReferenceArray<Entry<K, V>> tab = table;
+                int index = hash & (tab.length() - 1);
+                Entry<K, V> first = tab.get(index);
+                Entry<K, V> e = first;
+                while (e != null && (e.hash != hash || !e.key.equals(key))) {
+                    e = e.next;
+                }
+                if (e == null) {
+                    return null;
+                }
+                Entry<K, V> newFirst = e.next;
+                for (Entry<K, V> p = first; p != e; p = p.next) {
+                    newFirst = new Entry<>(p.hash, p.key, p.value, newFirst);
+                }
+                tab.set(index, newFirst);
+                count--;
+                return e.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Удваивает таблицу сегмента. Вызывается под блокировкой.
+         * Хвост цепочки, целиком попадающий в одну новую ячейку, переиспользуется,
+         * остальные элементы копируются; старая таблица остается корректной для читателей.
+         */
+        private void resize() {
+            AtomicReferenceArray<Entry<K, V>> oldTable = table;
+            int newCapacity = oldTable.length() * 2;
+            int newMask = newCapacity - 1;
+            AtomicReferenceArray<Entry<K, V>> newTable = new AtomicReferenceArray<>(newCapacity);
+
+            for (int i = 0; i < oldTable.length(); i++) {
+                Entry<K, V> e = oldTable.get(i);
+                if (e == null) {
+                    continue;
+                }
+                // Поиск хвоста цепочки, который целиком переходит в одну ячейку
+                Entry<K, V> lastRun = e;
+                int lastIndex = e.hash & newMask;
+                for (Entry<K, V> last = e.next; last != null; last = last.next) {
+                    int index = last.hash & newMask;
+                    if (index != lastIndex) {
+                        lastIndex = index;
+                        lastRun = last;
+                    }
+                }
+                newTable.set(lastIndex, lastRun);
+                // Копирование элементов перед хвостом
+                for (Entry<K, V> p = e; p != lastRun; p = p.next) {
+                    int index = p.hash & newMask;
+                    newTable.set(index, new Entry<>(p.hash, p.key, p.value, newTable.get(index)));
+                }
+            }
+            threshold = (int) (newCapacity * LOAD_FACTOR);
+            table = newTable;
+        }
+
+        /**
+         * Очистка сегмента под блокировкой.
+         */
+        void clear() {
+            lock();
+            try {
+                table = new AtomicReferenceArray<>(table.length());
+                count = 0;
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    /**
+     * Добавляет или обновляет пару ключ-значение.
+     * @param key ключ для добавления/обновления
+     * @param value соответствующее значение
+     * @return предыдущее значение или null
+     * @throws IllegalArgumentException если ключ равен null
+     */
+    public V put(K key, V value) {
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * Добавляет пару ключ-значение, только если ключ отсутствует.
+     * @param key ключ для добавления
+     * @param value соответствующее значение
+     * @return текущее значение, если ключ уже есть, иначе null
+     * @throws IllegalArgumentException если ключ равен null
+     */
+    public V putIfAbsent(K key, V value) {
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * Возвращает значение по ключу без блокировок.
+     * @param key ключ для поиска
+     * @return найденное значение или null, если ключ отсутствует
+     */
+    public V get(K key) {
+        if (key == null) return null;
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Удаляет элемент по ключу.
+     * @param key ключ элемента для удаления
+     * @return удаленное значение или null, если ключ не найден
+     */
+    public V remove(K key) {
+        if (key == null) return null;
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Проверяет наличие ключа в словаре.
+     * @param key ключ для проверки
+     * @return true если ключ присутствует, иначе false
+     */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Возвращает количество элементов. При параллельных изменениях результат приблизителен.
+     * @return количество элементов
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * Возвращает суммарную емкость таблиц всех сегментов.
+     * @return количество ячеек
+     */
+    int capacity() {
+        int capacity = 0;
+        for (Segment<K, V> segment : segments) {
+            capacity += segment.table.length();
+        }
+        return capacity;
+    }
+
+    /**
+     * Проверяет, пуст ли словарь.
+     * @return true если словарь пуст, иначе false
+     */
+    public boolean isEmpty() {
+        for (Segment<K, V> segment : segments) {
+            if (segment.count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Очищает словарь (посегментно).
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Возвращает слабо согласованный итератор: он не бросает исключений при параллельных
+     * изменениях и возвращает элементы, существовавшие на момент обхода соответствующей ячейки.
+     * @return итератор элементов
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new ConcurrentDictionaryIterator();
+    }
+
+    /**
+     * Итератор по сегментам и их цепочкам.
+     */
+    private class ConcurrentDictionaryIterator implements Iterator<Entry<K, V>> {
+        private int segmentIndex = 0;
+        private AtomicReferenceArray<Entry<K, V>> currentTable;
+        private int tableIndex = 0;
+        private Entry<K, V> nextEntry;
+
+        ConcurrentDictionaryIterator() {
+            advance();
+        }
+
+        /**
+         * Переходит к следующему непустому элементу.
+         */
+        private void advance() {
+            if (nextEntry != null && (nextEntry = nextEntry.next) != null) {
+                return;
+            }
+            while (true) {
+                if (currentTable != null && tableIndex < currentTable.length()) {
+                    nextEntry = currentTable.get(tableIndex++);
+                    if (nextEntry != null) {
+                        return;
+                    }
+                } else if (segmentIndex < segments.length) {
+                    currentTable = segments[segmentIndex++].table;
+                    tableIndex = 0;
+                } else {
+                    nextEntry = null;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (nextEntry == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> result = nextEntry;
+            advance();
+            return result;
+        }
+    }
+
+    /**
+     * Вычисляет перемешанный хеш-код ключа.
+     * @param key ключ для хеширования
+     * @return хеш-код ключа
+     * @throws IllegalArgumentException если ключ равен null
+     */
+    private int hash(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Ключ не может быть нулевым");
+        }
+        return HashTable.spread(key.hashCode());
+    }
+
+    /**
+     * Определяет сегмент по старшим битам хеша (младшие используются внутри сегмента).
+     * @param hash хеш-код ключа
+     * @return сегмент
+     */
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+}
@@ -7,41 +7,97 @@ import java.util.*;
  * Поддерживает основные операции: добавление, получение, удаление элементов,
  * а также итерацию по элементам. Автоматически расширяется при достижении
  * предельного коэффициента загрузки.
+ * Хеш-коды ключей перемешиваются перед выбором ячейки, а слишком длинные цепочки
+ * из ключей одного Comparable-типа превращаются в AVL-деревья (TreeBin),
+ * что ограничивает поиск в худшем случае величиной O(log n).
+ * В режиме постепенного расширения (incrementalResize) старая и новая таблицы
+ * существуют одновременно, и каждая вставка или удаление переносит лишь несколько ячеек,
+ * поэтому отдельная вставка не останавливается на перенос всего словаря.
  *
  * @param <K> тип ключей, должен правильно реализовывать hashCode() и equals()
+ *           (для Comparable-ключей compareTo() должен быть согласован с equals())
  * @param <V> тип значений
  */
 public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
     private static final int DEFAULT_CAPACITY = 16;             // Начальная емкость таблицы по умолчанию
     private static final float LOAD_FACTOR = 0.75f;             // Коэффициент загрузки для определения момента расширения таблицы
+    private static final int TREEIFY_THRESHOLD = 8;             // Длина цепочки, при которой она превращается в дерево
+    private static final int MIN_TREEIFY_CAPACITY = 64;         // Минимальная емкость таблицы для построения деревьев
+    private static final int MIGRATION_STEP = 4;                // Количество ячеек, переносимых за одну операцию
+    private static final int MAX_CAPACITY = 1 << 30;            // Максимальная емкость таблицы
     private Entry<K, V>[] table;                                // Основная хеш-таблица (массив цепочек)
     private int size;                                           // Текущее количество элементов в таблице
+    private final boolean incrementalResize;                    // Включено ли постепенное расширение
+    private Entry<K, V>[] oldTable;                             // Таблица, из которой идет перенос (или null)
+    private int transferIndex;                                  // Первая еще не перенесенная ячейка oldTable
+    private int modCount;                                       // Счетчик структурных изменений (для итераторов)
+    private Set<K> keySetView;                                  // Представление ключей (создается при первом запросе)
+    private Collection<V> valuesView;                           // Представление значений
+    private Set<Entry<K, V>> entrySetView;                      // Представление элементов
 
     /**
      * Конструктор создает пустой словарь с начальной емкостью по умолчанию.
      */
-    @SuppressWarnings("unchecked")
     public Dictionary() {
-        table = (Entry<K, V>[]) new Entry[DEFAULT_CAPACITY];
+        this(false);
+    }
+
+    /**
+     * Конструктор создает пустой словарь с начальной емкостью по умолчанию.
+     * @param incrementalResize если true, при расширении элементы переносятся в новую
+     *                          таблицу постепенно, по MIGRATION_STEP ячеек за операцию
+     */
+    public Dictionary(boolean incrementalResize) {
+        this(0, incrementalResize);
+    }
+
+    /**
+     * Конструктор создает пустой словарь, вмещающий expectedSize элементов без расширения.
+     * @param expectedSize ожидаемое количество элементов
+     * @throws IllegalArgumentException если expectedSize отрицателен
+     */
+    public Dictionary(int expectedSize) {
+        this(expectedSize, false);
+    }
+
+    /**
+     * Конструктор создает пустой словарь, вмещающий expectedSize элементов без расширения.
+     * @param expectedSize ожидаемое количество элементов
+     * @param incrementalResize если true, при расширении элементы переносятся в новую
+     *                          таблицу постепенно, по MIGRATION_STEP ячеек за операцию
+     * @throws IllegalArgumentException если expectedSize отрицателен
+     */
+    @SuppressWarnings("unchecked")
+    public Dictionary(int expectedSize, boolean incrementalResize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Ожидаемый размер не может быть отрицательным");
+        }
+        table = (Entry<K, V>[]) new Entry[capacityFor(expectedSize)];
         size = 0;
+        this.incrementalResize = incrementalResize;
     }
 
     /**
      * Внутренний класс для хранения элементов словаря.
      * Реализует односвязный список для разрешения коллизий.
+     * Перемешанный хеш ключа хранится в элементе: он сравнивается до вызова equals()
+     * и не вычисляется заново при расширении таблицы.
      */
     public static class Entry<K, V> {
+        final int hash;                         // Перемешанный хеш ключа
         final K key;                            // Ключ элемента (не может изменяться)
         V value;                                // Значение элемента
         Entry<K, V> next;                       // Ссылка на следующий элемент в цепочке
 
         /**
          * Создание новой записи в словаре.
+         * @param hash перемешанный хеш ключа
          * @param key ключ элемента
          * @param value значение элемента
          * @param next следующий элемент в цепочке коллизий
          */
-        Entry(K key, V value, Entry<K, V> next) {
+        Entry(int hash, K key, V value, Entry<K, V> next) {
+            this.hash = hash;
             this.key = key;
             this.value = value;
             this.next = next;
@@ -64,6 +120,213 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
         }
     }
 
+    /**
+     * Элемент ячейки, преобразованной в дерево. Помимо ссылки next (для итерации по ячейке)
+     * хранит ссылки на потомков в AVL-дереве, высоту поддерева и ссылку prev
+     * для удаления из цепочки за O(1).
+     */
+    static final class TreeEntry<K, V> extends Entry<K, V> {
+        Entry<K, V> prev;                       // Предыдущий элемент цепочки (или сама TreeBin)
+        TreeEntry<K, V> left, right;            // Потомки в дереве
+        int height;                             // Высота поддерева
+
+        TreeEntry(int hash, K key, V value) {
+            super(hash, key, value, null);
+            this.height = 1;
+        }
+    }
+
+    /**
+     * Заголовок ячейки, преобразованной в сбалансированное дерево.
+     * Не является элементом словаря (ключ равен null): next указывает на первый элемент
+     * цепочки, а root - на корень AVL-дерева тех же элементов, упорядоченных по хешу,
+     * а при равенстве хешей - по compareTo(). Балансировка повторяет схему AVLTree.
+     */
+    static final class TreeBin<K, V> extends Entry<K, V> {
+        final Class<?> keyClass;                // Класс ключей дерева
+        TreeEntry<K, V> root;                   // Корень дерева
+
+        TreeBin(Class<?> keyClass) {
+            super(0, null, null, null);
+            this.keyClass = keyClass;
+        }
+
+        /**
+         * Проверяет, можно ли упорядочить ключ вместе с ключами дерева.
+         * @param key ключ для проверки
+         * @return true если ключ того же Comparable-класса
+         */
+        boolean accepts(Object key) {
+            return key.getClass() == keyClass;
+        }
+
+        /**
+         * Поиск элемента в дереве.
+         * @param hash перемешанный хеш ключа
+         * @param key ключ
+         * @return найденный элемент или null
+         */
+        TreeEntry<K, V> find(int hash, Object key) {
+            TreeEntry<K, V> node = root;
+            while (node != null) {
+                int cmp = compare(hash, key, node);
+                if (cmp < 0) node = node.left;
+                else if (cmp > 0) node = node.right;
+                else return node;
+            }
+            return null;
+        }
+
+        /**
+         * Добавляет новый элемент в начало цепочки и в дерево.
+         * @param entry элемент, ключа которого еще нет в дереве
+         */
+        void add(TreeEntry<K, V> entry) {
+            entry.next = next;
+            if (next != null) {
+                ((TreeEntry<K, V>) next).prev = entry;
+            }
+            entry.prev = this;
+            next = entry;
+            root = insert(root, entry);
+        }
+
+        /**
+         * Удаляет элемент из цепочки и из дерева.
+         * @param entry удаляемый элемент этой ячейки
+         */
+        void remove(TreeEntry<K, V> entry) {
+            entry.prev.next = entry.next;
+            if (entry.next != null) {
+                ((TreeEntry<K, V>) entry.next).prev = entry.prev;
+            }
+            root = delete(root, entry);
+            entry.left = entry.right = null;
+        }
+
+        /**
+         * Рекурсивная вставка элемента в поддерево.
+         */
+        private TreeEntry<K, V> insert(TreeEntry<K, V> node, TreeEntry<K, V> entry) {
+            if (node == null) {
+                return entry;
+            }
+            if (compare(entry.hash, entry.key, node) < 0) {
+                node.left = insert(node.left, entry);
+            } else {
+                node.right = insert(node.right, entry);
+            }
+            node.height = 1 + Math.max(height(node.left), height(node.right));
+            return balance(node);
+        }
+
+        /**
+         * Рекурсивное удаление элемента из поддерева. Узел с двумя потомками
+         * заменяется своим преемником (сами объекты не копируются, так как это элементы словаря).
+         */
+        private TreeEntry<K, V> delete(TreeEntry<K, V> node, TreeEntry<K, V> entry) {
+            if (node != entry) {
+                if (compare(entry.hash, entry.key, node) < 0) {
+                    node.left = delete(node.left, entry);
+                } else {
+                    node.right = delete(node.right, entry);
+                }
+            } else {
+                if (node.left == null || node.right == null) {
+                    return (node.left != null) ? node.left : node.right;
+                }
+                TreeEntry<K, V> successor = node.right;
+                while (successor.left != null) {
+                    successor = successor.left;
+                }
+                successor.right = deleteMin(node.right);
+                successor.left = node.left;
+                node = successor;
+            }
+            node.height = 1 + Math.max(height(node.left), height(node.right));
+            return balance(node);
+        }
+
+        /**
+         * Удаляет минимальный узел поддерева.
+         */
+        private TreeEntry<K, V> deleteMin(TreeEntry<K, V> node) {
+            if (node.left == null) {
+                return node.right;
+            }
+            node.left = deleteMin(node.left);
+            node.height = 1 + Math.max(height(node.left), height(node.right));
+            return balance(node);
+        }
+
+        private int height(TreeEntry<K, V> node) {
+            return (node == null) ? 0 : node.height;
+        }
+
+        private int getBalance(TreeEntry<K, V> node) {
+            return (node == null) ? 0 : height(node.left) - height(node.right);
+        }
+
+        /**
+         * Балансирует узел при необходимости (те же четыре случая, что и в AVLTree).
+         */
+        private TreeEntry<K, V> balance(TreeEntry<K, V> node) {
+            int balance = getBalance(node);
+
+            // Left Left Case
+            if (balance > 1 && getBalance(node.left) >= 0) {
+                return rightRotate(node);
+            }
+
+            // Left Right Case
+            if (balance > 1 && getBalance(node.left) < 0) {
+                node.left = leftRotate(node.left);
+                return rightRotate(node);
+            }
+
+            // Right Right Case
+            if (balance < -1 && getBalance(node.right) <= 0) {
+                return leftRotate(node);
+            }
+
+            // Right Left Case
+            if (balance < -1 && getBalance(node.right) > 0) {
+                node.right = rightRotate(node.right);
+                return leftRotate(node);
+            }
+            return node;
+        }
+
+        private TreeEntry<K, V> rightRotate(TreeEntry<K, V> y) {
+            TreeEntry<K, V> x = y.left;
+            y.left = x.right;
+            x.right = y;
+            y.height = Math.max(height(y.left), height(y.right)) + 1;
+            x.height = Math.max(height(x.left), height(x.right)) + 1;
+            return x;
+        }
+
+        private TreeEntry<K, V> leftRotate(TreeEntry<K, V> x) {
+            TreeEntry<K, V> y = x.right;
+            x.right = y.left;
+            y.left = x;
+            x.height = Math.max(height(x.left), height(x.right)) + 1;
+            y.height = Math.max(height(y.left), height(y.right)) + 1;
+            return y;
+        }
+
+        /**
+         * Сравнивает ключ с узлом: сначала по хешу, затем по compareTo().
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static int compare(int hash, Object key, TreeEntry<?, ?> node) {
+            if (hash != node.hash) {
+                return hash < node.hash ? -1 : 1;
+            }
+            return ((Comparable) key).compareTo(node.key);
+        }
+    }
+
 /////////////////////////////////////---Метод добавления---/////////////////////////////////////
     /**
      * Добавляет или обновляет пару ключ-значение в словаре.
@@ -78,18 +341,81 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
 
         // Вычисление хеша и индекса в таблице
         int hash = hash(key);
-        int index = indexFor(hash, table.length);
+        Entry<K, V>[] tab = tableFor(hash);
+        int index = indexFor(hash, tab.length);
+
+        // Ячейка-дерево: поиск и вставка за O(log n)
+        if (tab[index] instanceof TreeBin) {
+            TreeBin<K, V> bin = (TreeBin<K, V>) tab[index];
+            if (bin.accepts(key)) {
+                TreeEntry<K, V> e = bin.find(hash, key);
+                if (e != null) {
+                    e.value = value;
+                    return;
+                }
+                bin.add(new TreeEntry<>(hash, key, value));
+                modCount++;
+                if (size++ >= table.length * LOAD_FACTOR) {
+                    resize(2 * table.length);
+                }
+                migrateStep();
+                return;
+            }
+            // Ключ другого типа нельзя упорядочить с остальными - ячейка снова становится цепочкой
+            tab[index] = bin.next;
+        }
 
         // Поиск существующего ключа в цепочке
-        for (Entry<K, V> e = table[index]; e != null; e = e.next) {
-            if (e.key.equals(key)) {
+        int binCount = 0;
+        for (Entry<K, V> e = tab[index]; e != null; e = e.next) {
+            if (e.hash == hash && e.key.equals(key)) {
                 e.value = value;
                 return;
             }
+            binCount++;
         }
 
         // Добавление нового элемента в начало цепочки
-        addEntry(key, value, index);
+        addEntry(tab, hash, key, value, index, binCount);
+        migrateStep();
+    }
+
+    /**
+     * Копирует все элементы другого словаря. Таблица заранее расширяется
+     * до размера, вмещающего оба словаря, поэтому при вставке расширений не происходит.
+     * @param other словарь-источник
+     */
+    public void putAll(Dictionary<? extends K, ? extends V> other) {
+        ensureCapacity(size + other.size());
+        for (Entry<? extends K, ? extends V> e : other) {
+            put(e.key, e.value);
+        }
+    }
+
+    /**
+     * Копирует все пары ключ-значение из Map. Таблица заранее расширяется
+     * до размера, вмещающего оба набора элементов.
+     * @param map источник пар ключ-значение
+     * @throws IllegalArgumentException если в map есть ключ null
+     */
+    public void putAll(Map<? extends K, ? extends V> map) {
+        ensureCapacity(size + map.size());
+        for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Расширяет таблицу за один проход так, чтобы она вмещала expectedSize элементов
+     * без дальнейших расширений. Начатый постепенный перенос при этом завершается.
+     * @param expectedSize ожидаемое количество элементов
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > table.length) {
+            finishMigration();
+            rebuild(capacity);
+        }
     }
 
     /////////////////////////////////////---Метод поиска---/////////////////////////////////////
@@ -99,15 +425,31 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
      * @return найденное значение или null, если ключ отсутствует
      */
     public V get(K key) {
+        Entry<K, V> e = getEntry(key);
+        return (e != null) ? e.value : null;
+    }
+
+    /**
+     * Ищет элемент словаря по ключу.
+     * @param key ключ для поиска (может быть любого типа)
+     * @return найденный элемент или null
+     */
+    private Entry<K, V> getEntry(Object key) {
         if (key == null) return null;
 
         int hash = hash(key);
-        int index = indexFor(hash, table.length);
+        Entry<K, V>[] tab = tableFor(hash);
+        int index = indexFor(hash, tab.length);
+
+        if (tab[index] instanceof TreeBin) {
+            TreeBin<K, V> bin = (TreeBin<K, V>) tab[index];
+            return bin.accepts(key) ? bin.find(hash, key) : null;
+        }
 
         // Поиск ключа в соответствующей цепочке
-        for (Entry<K, V> e = table[index]; e != null; e = e.next) {
-            if (e.key.equals(key)) {
-                return e.value;
+        for (Entry<K, V> e = tab[index]; e != null; e = e.next) {
+            if (e.hash == hash && e.key.equals(key)) {
+                return e;
             }
         }
 
@@ -122,22 +464,52 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
      */
     public V remove(K key) {
         if (key == null) return null;
+        int oldSize = size;
+        V value = removeNode(key);
+        if (size != oldSize) {
+            migrateStep();
+        }
+        return value;
+    }
 
+    /**
+     * Удаляет элемент по ключу без шага переноса ячеек (используется и итератором,
+     * чтобы не перемещать элементы во время обхода).
+     * @param key ключ элемента для удаления
+     * @return удаленное значение или null, если ключ не найден
+     */
+    private V removeNode(Object key) {
         int hash = hash(key);
-        int index = indexFor(hash, table.length);
-        Entry<K, V> prev = table[index];
+        Entry<K, V>[] tab = tableFor(hash);
+        int index = indexFor(hash, tab.length);
+
+        if (tab[index] instanceof TreeBin) {
+            TreeBin<K, V> bin = (TreeBin<K, V>) tab[index];
+            TreeEntry<K, V> e = bin.accepts(key) ? bin.find(hash, key) : null;
+            if (e == null) return null;
+            bin.remove(e);
+            if (bin.next == null) {
+                tab[index] = null;              // Дерево опустело
+            }
+            size--;
+            modCount++;
+            return e.value;
+        }
+
+        Entry<K, V> prev = tab[index];
         Entry<K, V> e = prev;
 
         while (e != null) {
             Entry<K, V> next = e.next;
-            if (e.key.equals(key)) {
+            if (e.hash == hash && e.key.equals(key)) {
                 // Удаление из цепочки
                 if (prev == e) {
-                    table[index] = next;        // Удаление первого элемента
+                    tab[index] = next;          // Удаление первого элемента
                 } else {
                     prev.next = next;           // Удаление из середины/конца
                 }
                 size--;
+                modCount++;
                 return e.value;
             }
             prev = e;
@@ -155,7 +527,7 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
      * @return true если ключ присутствует, иначе false
      */
     public boolean containsKey(K key) {
-        return get(key) != null;
+        return getEntry(key) != null;
     }
 
     /////////////////////////////////////---Метод количество элементов---/////////////////////////////////////
@@ -184,52 +556,164 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
     public void clear() {
         table = (Entry<K, V>[]) new Entry[DEFAULT_CAPACITY];
         size = 0;
+        oldTable = null;
+        transferIndex = 0;
+        modCount++;
     }
 
     /////////////////////////////////////---Метод возврат ключей---/////////////////////////////////////
     /**
      * Возвращает множество всех ключей в словаре.
+     * Это представление словаря, а не копия: contains() выполняет поиск по ключу,
+     * size() возвращает размер словаря, а изменения словаря сразу видны в нем.
      * @return множество ключей
      */
     public Set<K> keySet() {
-        Set<K> keys = new HashSet<>();
-        for (int i = 0; i < table.length; i++) {
-            Entry<K, V> entry = table[i];
-            while (entry != null) {
-                keys.add(entry.key);
-                entry = entry.next;
-            }
+        if (keySetView == null) {
+            keySetView = new KeySetView();
         }
-        return keys;
+        return keySetView;
     }
 
     /////////////////////////////////////---Метод возврат значений---/////////////////////////////////////
     /**
-     * Возвращает коллекцию всех значений в словаре.
+     * Возвращает коллекцию всех значений в словаре (представление, а не копия).
      * @return коллекция значений
      */
     public Collection<V> values() {
-        List<V> values = new ArrayList<>();
-        for (int i = 0; i < table.length; i++) {
-            Entry<K, V> entry = table[i];
-            while (entry != null) {
-                values.add(entry.value);
-                entry = entry.next;
-            }
+        if (valuesView == null) {
+            valuesView = new ValuesView();
         }
-        return values;
+        return valuesView;
     }
 
     /**
-     * Возвращает множество всех элементов словаря.
+     * Возвращает множество всех элементов словаря (представление, а не копия).
      * @return множество элементов (пар ключ-значение)
      */
     public Set<Entry<K, V>> entrySet() {
-        Set<Entry<K, V>> entries = new HashSet<>();
-        for (Entry<K, V> entry : this) {
-            entries.add(entry);
+        if (entrySetView == null) {
+            entrySetView = new EntrySetView();
+        }
+        return entrySetView;
+    }
+
+    /**
+     * Представление множества ключей.
+     */
+    private class KeySetView extends AbstractSet<K> {
+        @Override
+        public Iterator<K> iterator() {
+            Iterator<Entry<K, V>> entries = new DictionaryIterator();
+            return new Iterator<K>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    return entries.next().key;
+                }
+
+                @Override
+                public void remove() {
+                    entries.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return getEntry(o) != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object o) {
+            if (getEntry(o) == null) {
+                return false;
+            }
+            Dictionary.this.remove((K) o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            Dictionary.this.clear();
+        }
+    }
+
+    /**
+     * Представление коллекции значений.
+     */
+    private class ValuesView extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            Iterator<Entry<K, V>> entries = new DictionaryIterator();
+            return new Iterator<V>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public V next() {
+                    return entries.next().value;
+                }
+
+                @Override
+                public void remove() {
+                    entries.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            Dictionary.this.clear();
+        }
+    }
+
+    /**
+     * Представление множества элементов. Элемент считается содержащимся,
+     * если в словаре есть его ключ с равным значением.
+     */
+    private class EntrySetView extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new DictionaryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            Entry<K, V> e = getEntry(entry.key);
+            return e != null && Objects.equals(e.value, entry.value);
+        }
+
+        @Override
+        public void clear() {
+            Dictionary.this.clear();
         }
-        return entries;
     }
 
     /**
@@ -243,22 +727,45 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
 
     /**
      * Внутренний класс итератора для обхода элементов словаря.
-     * Реализует обход всех цепочек хеш-таблицы.
+     * Реализует обход всех цепочек хеш-таблицы, а во время постепенного
+     * расширения - также еще не перенесенных ячеек старой таблицы.
+     * Итератор быстро отказывает (fail-fast): при изменении словаря в обход итератора
+     * next() и remove() бросают ConcurrentModificationException.
      */
     private class DictionaryIterator implements Iterator<Entry<K, V>> {
+        private Entry<K, V>[] currentTable = table;
         private int currentIndex = 0;
         private Entry<K, V> currentEntry = null;
+        private Entry<K, V> lastReturned = null;
+        private int expectedModCount = modCount;
 
         /**
          * Конструктор инициализирует итератор на первый непустой элемент.
          */
         public DictionaryIterator() {
-            while (currentIndex < table.length && table[currentIndex] == null) {
-                currentIndex++;
-            }
-            // Переход к следующей цепочке при необходимости
-            if (currentIndex < table.length) {
-                currentEntry = table[currentIndex];
+            advanceToNextBin();
+        }
+
+        /**
+         * Переходит к следующей непустой ячейке, начиная с currentIndex.
+         * После основной таблицы продолжает обход старой (с первой неперенесенной ячейки).
+         */
+        private void advanceToNextBin() {
+            while (true) {
+                while (currentIndex < currentTable.length && currentTable[currentIndex] == null) {
+                    currentIndex++;
+                }
+                // Переход к следующей цепочке при необходимости
+                if (currentIndex < currentTable.length) {
+                    currentEntry = firstEntry(currentTable[currentIndex]);
+                    return;
+                }
+                if (oldTable == null || currentTable == oldTable) {
+                    currentEntry = null;
+                    return;
+                }
+                currentTable = oldTable;
+                currentIndex = transferIndex;
             }
         }
 
@@ -269,6 +776,7 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
 
         @Override
         public Entry<K, V> next() {
+            checkForComodification();
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
@@ -278,25 +786,79 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
             currentEntry = currentEntry.next;
             if (currentEntry == null) {
                 currentIndex++;
-                while (currentIndex < table.length && table[currentIndex] == null) {
-                    currentIndex++;
-                }
-                if (currentIndex < table.length) {
-                    currentEntry = table[currentIndex];
-                }
+                advanceToNextBin();
             }
 
+            lastReturned = result;
             return result;
         }
+
+        /**
+         * Удаляет последний возвращенный элемент. Следующий элемент уже запомнен
+         * и при удалении из цепочки или дерева не перемещается.
+         * @throws IllegalStateException если next() не вызывался или элемент уже удален
+         */
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            removeNode(lastReturned.key);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * Проверяет, что словарь не изменялся в обход итератора.
+         * @throws ConcurrentModificationException если словарь был изменен
+         */
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Возвращает первый элемент ячейки, пропуская заголовок дерева.
+     * @param head содержимое ячейки таблицы
+     * @return первый элемент словаря в ячейке или null
+     */
+    private static <K, V> Entry<K, V> firstEntry(Entry<K, V> head) {
+        return (head instanceof TreeBin) ? head.next : head;
+    }
+
+    /**
+     * Вычисляет емкость таблицы (степень двойки), при которой expectedSize элементов
+     * помещаются без превышения коэффициента загрузки.
+     * @param expectedSize ожидаемое количество элементов
+     * @return емкость таблицы, не меньше DEFAULT_CAPACITY
+     */
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR);
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < needed && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Возвращает текущий размер основной таблицы.
+     * @return количество ячеек таблицы
+     */
+    int capacity() {
+        return table.length;
     }
 
     /**
-     * Вычисляет хеш-код ключа.
+     * Вычисляет перемешанный хеш-код ключа, чтобы старшие биты влияли на выбор ячейки.
      * @param key ключ для хеширования
      * @return хеш-код ключа
      */
-    private int hash(K key) {
-        return key.hashCode();
+    private int hash(Object key) {
+        return HashTable.spread(key.hashCode());
     }
 
     /**
@@ -309,45 +871,199 @@ public class Dictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
         return hash & (length - 1);
     }
 
+    /**
+     * Возвращает таблицу, в которой сейчас находится ячейка для данного хеша:
+     * старую, если ячейка еще не перенесена, иначе основную.
+     * @param hash хеш-код ключа
+     * @return таблица для поиска и изменения
+     */
+    private Entry<K, V>[] tableFor(int hash) {
+        if (oldTable != null && indexFor(hash, oldTable.length) >= transferIndex) {
+            return oldTable;
+        }
+        return table;
+    }
+
     /**
      * Добавляет новую запись в таблицу.
+     * @param tab таблица, содержащая ячейку
+     * @param hash перемешанный хеш ключа
      * @param key ключ элемента
      * @param value значение элемента
      * @param index индекс в таблице
+     * @param binCount длина цепочки до добавления
      */
-    private void addEntry(K key, V value, int index) {
-        Entry<K, V> e = table[index];
-        table[index] = new Entry<>(key, value, e);
+    private void addEntry(Entry<K, V>[] tab, int hash, K key, V value, int index, int binCount) {
+        Entry<K, V> e = tab[index];
+        tab[index] = new Entry<>(hash, key, value, e);
+        modCount++;
         // Проверка необходимости расширения таблицы
         if (size++ >= table.length * LOAD_FACTOR) {
             resize(2 * table.length);
+        } else if (binCount + 1 >= TREEIFY_THRESHOLD) {
+            treeifyBin(tab, index);
+        }
+    }
+
+    /**
+     * Преобразует длинную цепочку в дерево. В маленькой таблице вместо этого
+     * таблица расширяется; цепочки из ключей разных или не Comparable-классов не изменяются.
+     * @param tab таблица, содержащая ячейку
+     * @param index индекс ячейки
+     */
+    private void treeifyBin(Entry<K, V>[] tab, int index) {
+        if (tab.length < MIN_TREEIFY_CAPACITY) {
+            resize(2 * table.length);
+            return;
+        }
+        Entry<K, V> first = tab[index];
+        Class<?> keyClass = first.key.getClass();
+        if (!(first.key instanceof Comparable)) {
+            return;
         }
+        for (Entry<K, V> e = first; e != null; e = e.next) {
+            if (e.key.getClass() != keyClass) {
+                return;
+            }
+        }
+        TreeBin<K, V> bin = new TreeBin<>(keyClass);
+        for (Entry<K, V> e = first; e != null; e = e.next) {
+            bin.add(new TreeEntry<>(e.hash, e.key, e.value));
+        }
+        tab[index] = bin;
     }
 
     /**
      * Увеличивает размер таблицы и перераспределяет элементы.
+     * Ячейки новой таблицы, цепочки которых достигли порога, превращаются в деревья.
+     * В режиме постепенного расширения только начинает перенос: текущая таблица
+     * становится старой, а ячейки переносятся последующими операциями.
      * @param newCapacity новый размер таблицы
      */
     @SuppressWarnings("unchecked")
     private void resize(int newCapacity) {
-        Entry<K, V>[] newTable = (Entry<K, V>[]) new Entry[newCapacity];
-        transfer(newTable);
+        if (incrementalResize) {
+            finishMigration();
+            oldTable = table;
+            transferIndex = 0;
+            table = (Entry<K, V>[]) new Entry[newCapacity];
+            return;
+        }
+        rebuild(newCapacity);
+    }
+
+    /**
+     * Переносит все элементы в новую таблицу за один проход.
+     * Ячейки новой таблицы, цепочки которых достигли порога, превращаются в деревья.
+     * @param newCapacity новый размер таблицы
+     */
+    @SuppressWarnings("unchecked")
+    private void rebuild(int newCapacity) {
+        Entry<K, V>[] newTable = (Entry<K, V>[]) new Entry<?, ?>[newCapacity];
+        int[] binCounts = new int[newCapacity];
+        transfer(newTable, binCounts);
         table = newTable;
+        if (newCapacity >= MIN_TREEIFY_CAPACITY) {
+            for (int i = 0; i < newCapacity; i++) {
+                if (binCounts[i] >= TREEIFY_THRESHOLD) {
+                    treeifyBin(table, i);
+                }
+            }
+        }
     }
 
     /**
-     * Переносит все элементы в новую таблицу.
+     * Переносит все элементы в новую таблицу в виде обычных цепочек.
      * @param newTable новая таблица
+     * @param binCounts массив для подсчета длин новых цепочек
      */
-    private void transfer(Entry<K, V>[] newTable) {
-        for (Entry<K, V> e : table) {
+    private void transfer(Entry<K, V>[] newTable, int[] binCounts) {
+        for (Entry<K, V> head : table) {
+            Entry<K, V> e = firstEntry(head);
             while (e != null) {
                 Entry<K, V> next = e.next;
-                int index = indexFor(hash(e.key), newTable.length);
+                int index = indexFor(e.hash, newTable.length);
                 e.next = newTable[index];
                 newTable[index] = e;
+                binCounts[index]++;
                 e = next;
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Переносит очередные MIGRATION_STEP ячеек старой таблицы, если идет расширение.
+     * Вызывается только после вставки или удаления, которые уже увеличили modCount:
+     * перенос ячеек в уже пройденные итератором позиции основной таблицы
+     * при обновлении значения привел бы к пропуску элементов без ConcurrentModificationException.
+     */
+    private void migrateStep() {
+        if (oldTable == null) {
+            return;
+        }
+        int end = Math.min(transferIndex + MIGRATION_STEP, oldTable.length);
+        while (transferIndex < end) {
+            migrateBin(transferIndex++);
+        }
+        if (transferIndex == oldTable.length) {
+            oldTable = null;
+            transferIndex = 0;
+        }
+    }
+
+    /**
+     * Завершает начатый перенос целиком.
+     */
+    private void finishMigration() {
+        if (oldTable == null) {
+            return;
+        }
+        while (transferIndex < oldTable.length) {
+            migrateBin(transferIndex++);
+        }
+        oldTable = null;
+        transferIndex = 0;
+    }
+
+    /**
+     * Переносит одну ячейку старой таблицы в основную. При удвоении элементы ячейки i
+     * попадают только в ячейки i и i + oldTable.length, которые затем при необходимости
+     * превращаются в деревья.
+     * @param oldIndex индекс ячейки старой таблицы
+     */
+    private void migrateBin(int oldIndex) {
+        Entry<K, V> e = firstEntry(oldTable[oldIndex]);
+        if (e == null) {
+            return;
+        }
+        oldTable[oldIndex] = null;
+        while (e != null) {
+            Entry<K, V> next = e.next;
+            int index = indexFor(e.hash, table.length);
+            e.next = table[index];
+            table[index] = e;
+            e = next;
+        }
+        if (table.length >= MIN_TREEIFY_CAPACITY) {
+            treeifyIfLong(oldIndex);
+            treeifyIfLong(oldIndex + oldTable.length);
+        }
+    }
+
+    /**
+     * Превращает ячейку основной таблицы в дерево, если ее цепочка достигла порога.
+     * @param index индекс ячейки
+     */
+    private void treeifyIfLong(int index) {
+        if (table[index] instanceof TreeBin) {
+            return;
+        }
+        int binCount = 0;
+        for (Entry<K, V> e = table[index]; e != null && binCount < TREEIFY_THRESHOLD; e = e.next) {
+            binCount++;
+        }
+        if (binCount >= TREEIFY_THRESHOLD) {
+            treeifyBin(table, index);
+        }
+    }
+}
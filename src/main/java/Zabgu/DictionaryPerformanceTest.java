@@ -1,9 +1,12 @@
 package Zabgu;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartFrame;
@@ -22,33 +25,37 @@ public class DictionaryPerformanceTest {
      * Выводит результаты в консоль и строит график зависимости времени от размера.
      */
     public static void testSearchPerformance() {
-        System.out.println("\nТестирование времени поиска в Dictionary:");
-        System.out.println("Размер  | Время (мс)");
-        System.out.println("--------------------");
+        System.out.println("\nТестирование времени поиска в Dictionary и FlatDictionary:");
+        System.out.println("Размер  | Dictionary (мс) | FlatDictionary (мс)");
+        System.out.println("-----------------------------------------------");
 
         int[] sizes = {100, 1_000, 10_000, 100_000, 1_000_000};
         int searchIterations = 100_000;
         int[] times = new int[sizes.length];
+        int[] flatTimes = new int[sizes.length];
         Random rand = new Random();
 
         for (int i = 0; i < sizes.length; i++) {
             int size = sizes[i];
             Dictionary<Integer, String> dict = new Dictionary<>();
+            FlatDictionary<Integer, String> flat = new FlatDictionary<>();
 
-            // Заполнение словаря случайными уникальными ключами
+            // Заполнение словарей случайными уникальными ключами
             Set<Integer> uniqueKeys = new HashSet<>();
             while (uniqueKeys.size() < size) {
                 uniqueKeys.add(rand.nextInt(size * 10));
             }
             for (Integer key : uniqueKeys) {
                 dict.put(key, "value_" + key);
+                flat.put(key, "value_" + key);
             }
 
             // Подготовка ключей для поиска (50% существующих, 50% случайных)
+            Integer[] existingKeys = uniqueKeys.toArray(new Integer[0]);
             int[] searchKeys = new int[searchIterations];
             for (int j = 0; j < searchIterations; j++) {
                 searchKeys[j] = rand.nextBoolean() ?
-                        new ArrayList<>(uniqueKeys).get(rand.nextInt(size)) :
+                        existingKeys[rand.nextInt(size)] :
                         size * 10 + rand.nextInt(size * 10);
             }
 
@@ -57,29 +64,201 @@ public class DictionaryPerformanceTest {
             for (int key : searchKeys) {
                 dict.get(key);
             }
-            long durationMs = (System.nanoTime() - startTime) / 1_000_000;
-            times[i] = (int) durationMs;
+            times[i] = (int) ((System.nanoTime() - startTime) / 1_000_000);
 
-            System.out.printf("%6d  | %8d%n", size, durationMs);
+            startTime = System.nanoTime();
+            for (int key : searchKeys) {
+                flat.get(key);
+            }
+            flatTimes[i] = (int) ((System.nanoTime() - startTime) / 1_000_000);
+
+            System.out.printf("%6d  | %15d | %19d%n", size, times[i], flatTimes[i]);
+        }
+
+        createChart(sizes, times, flatTimes);
+    }
+
+    /**
+     * Сравнивает поиск по строковым ключам в Dictionary&lt;String, Integer&gt;
+     * и StringIntDictionary: половина запросов находит ключ, половина - нет.
+     */
+    public static void testStringKeyLookup() {
+        System.out.println("\nПоиск 1 000 000 строковых ключей (мс):");
+        System.out.println("Словарь              | время");
+        System.out.println("-------------------------------");
+
+        int count = 1_000_000;
+        String[] keys = new String[count];
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = "item-" + i;
+            queries[i] = (i % 2 == 0) ? keys[i] : "missing-" + i;
+        }
+        Dictionary<String, Integer> boxed = new Dictionary<>(count);
+        StringIntDictionary primitive = new StringIntDictionary(count);
+        for (int i = 0; i < count; i++) {
+            boxed.put(keys[i], i);
+            primitive.put(keys[i], i);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (String query : queries) {
+                Integer value = boxed.get(query);
+                if (value != null) sum += value;
+            }
+            double boxedTime = (System.nanoTime() - start) / 1e6;
+
+            start = System.nanoTime();
+            for (String query : queries) {
+                sum += primitive.getOrDefault(query, 0);
+            }
+            double primitiveTime = (System.nanoTime() - start) / 1e6;
+
+            if (round == 2) {
+                System.out.printf("%-20s | %6.1f%n", "Dictionary", boxedTime);
+                System.out.printf("%-20s | %6.1f%n", "StringIntDictionary", primitiveTime);
+                System.out.println("(контрольная сумма " + sum + ")");
+            }
+        }
+    }
+
+    /**
+     * Сравнивает загрузку большого словаря поэлементными put() с начальной емкостью
+     * по умолчанию и через putAll() в словарь с заранее рассчитанным размером.
+     */
+    public static void testBulkLoad() {
+        System.out.println("\nЗагрузка 2 000 000 элементов (мс):");
+        System.out.println("Способ                | время");
+        System.out.println("--------------------------------");
+
+        int count = 2_000_000;
+        Map<Integer, Integer> source = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            source.put(i, i);
+        }
+
+        long start = System.nanoTime();
+        Dictionary<Integer, Integer> grown = new Dictionary<>();
+        for (Map.Entry<Integer, Integer> e : source.entrySet()) {
+            grown.put(e.getKey(), e.getValue());
         }
+        System.out.printf("%-21s | %6.1f%n", "put() с расширениями", (System.nanoTime() - start) / 1e6);
 
-        createChart(sizes, times);
+        start = System.nanoTime();
+        Dictionary<Integer, Integer> presized = new Dictionary<>();
+        presized.putAll(source);
+        System.out.printf("%-21s | %6.1f%n", "putAll()", (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Сравнивает задержки вставки при обычном и постепенном расширении:
+     * 99-й перцентиль и максимальное время одной операции put.
+     */
+    public static void testPutLatency() {
+        System.out.println("\nЗадержка вставки 2 000 000 элементов (мкс):");
+        System.out.println("Режим        | p99     | максимум");
+        System.out.println("----------------------------------");
+
+        int count = 2_000_000;
+        for (boolean incremental : new boolean[]{false, true}) {
+            Dictionary<Integer, Integer> dict = new Dictionary<>(incremental);
+            long[] latencies = new long[count];
+            for (int i = 0; i < count; i++) {
+                long start = System.nanoTime();
+                dict.put(i, i);
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%-12s | %7.1f | %8.1f%n", incremental ? "постепенное" : "обычное",
+                    latencies[(int) (count * 0.99)] / 1000.0, latencies[count - 1] / 1000.0);
+        }
+    }
+
+    /**
+     * Сравнивает пропускную способность чтения ConcurrentDictionary и Dictionary,
+     * защищенного глобальной блокировкой, при разном количестве читающих потоков.
+     */
+    public static void testConcurrentReadThroughput() {
+        System.out.println("\nПропускная способность чтения (млн операций/с):");
+        System.out.println("Потоки | Dictionary + блокировка | ConcurrentDictionary");
+        System.out.println("-----------------------------------------------------");
+
+        int size = 100_000;
+        int readsPerThread = 2_000_000;
+        Dictionary<Integer, Integer> dict = new Dictionary<>();
+        ConcurrentDictionary<Integer, Integer> concurrent = new ConcurrentDictionary<>();
+        for (int i = 0; i < size; i++) {
+            dict.put(i, i);
+            concurrent.put(i, i);
+        }
+        Object lock = new Object();
+
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double locked = measureReads(threads, readsPerThread, key -> {
+                synchronized (lock) {
+                    return dict.get(key);
+                }
+            });
+            double lockFree = measureReads(threads, readsPerThread, concurrent::get);
+            System.out.printf("%6d | %23.1f | %20.1f%n", threads, locked, lockFree);
+        }
+    }
+
+    /**
+     * Запускает заданное количество потоков, выполняющих чтение, и измеряет пропускную способность.
+     * @param threads количество потоков
+     * @param readsPerThread количество чтений на поток
+     * @param reader операция чтения по ключу
+     * @return миллионов операций в секунду
+     */
+    private static double measureReads(int threads, int readsPerThread, IntFunction<Integer> reader) {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            workers[t] = new Thread(() -> {
+                Random rand = new Random(seed);
+                for (int j = 0; j < readsPerThread; j++) {
+                    reader.apply(rand.nextInt(100_000));
+                }
+            });
+        }
+        long startTime = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        return (double) threads * readsPerThread / seconds / 1e6;
     }
 
     /**
      * Создает график зависимости времени поиска от размера словаря.
      * @param sizes массив размеров словаря
-     * @param times массив времени выполнения для каждого размера
+     * @param times массив времени выполнения для Dictionary
+     * @param flatTimes массив времени выполнения для FlatDictionary
      */
-    private static void createChart(int[] sizes, int[] times) {
+    private static void createChart(int[] sizes, int[] times, int[] flatTimes) {
         XYSeries series = new XYSeries("Dictionary поиск");
+        XYSeries flatSeries = new XYSeries("FlatDictionary поиск");
 
         for (int i = 0; i < sizes.length; i++) {
             series.add(sizes[i], times[i]);
+            flatSeries.add(sizes[i], flatTimes[i]);
         }
 
         XYSeriesCollection dataset = new XYSeriesCollection();
         dataset.addSeries(series);
+        dataset.addSeries(flatSeries);
 
         JFreeChart chart = ChartFactory.createXYLineChart(
                 "Производительность Dictionary",
@@ -96,4 +275,3 @@ public class DictionaryPerformanceTest {
     }
 
 }
-
@@ -1,5 +1,12 @@
 package Zabgu;
 
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Класс для модульного тестирования Dictionary.
  * Содержит тесты всех основных операций словаря.
@@ -16,6 +23,16 @@ public class DictionaryTests {
         testSize();
         testClear();
         testIterator();
+        testConcurrentDictionary();
+        testTreeifiedBins();
+        testIncrementalResize();
+        testFlatDictionary();
+        testViews();
+        testIteratorRemove();
+        testBulkLoad();
+        testStringIntDictionary();
+        testIterationDuringMigration();
+        testFailFastDuringMigration();
         System.out.println("Все тесты словаря пройдены успешно!");
     }
 
@@ -120,4 +137,413 @@ public class DictionaryTests {
 
         System.out.println("Тест Iterator пройден");
     }
-}
\ No newline at end of file
+
+    /**
+     * Тестирует ConcurrentDictionary при параллельной записи и чтении из нескольких потоков.
+     */
+    public static void testConcurrentDictionary() {
+        ConcurrentDictionary<Integer, Integer> dict = new ConcurrentDictionary<>(4);
+        int threadCount = 4;
+        int perThread = 10_000;
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t * perThread;
+            threads[t] = new Thread(() -> {
+                for (int i = offset; i < offset + perThread; i++) {
+                    dict.put(i, i * 2);
+                    assert dict.get(i) == i * 2 : "Поток должен видеть свою запись";
+                }
+                for (int i = offset; i < offset + perThread; i += 2) {
+                    dict.remove(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Ожидание потоков прервано", e);
+            }
+        }
+
+        assert dict.size() == threadCount * perThread / 2 : "Размер должен учитывать все потоки";
+        assert dict.get(1) == 2 : "Неверное значение для ключа 1";
+        assert !dict.containsKey(2) : "Ключ 2 должен быть удален";
+        assert dict.putIfAbsent(1, 100) == 2 : "putIfAbsent не должен заменять значение";
+
+        int count = 0;
+        for (ConcurrentDictionary.Entry<Integer, Integer> entry : dict) {
+            assert entry.getValue() == entry.getKey() * 2 : "Итератор должен возвращать корректные пары";
+            count++;
+        }
+        assert count == dict.size() : "Итератор должен обойти все элементы";
+
+        dict.clear();
+        assert dict.isEmpty() : "Словарь должен быть пустым после очистки";
+
+        // Сегмент, заполненный до порога, не расширяется при обновлении существующего ключа
+        ConcurrentDictionary<Integer, Integer> single = new ConcurrentDictionary<>(1);
+        for (int i = 0; i < 12; i++) {
+            single.put(i, i);
+        }
+        int capacity = single.capacity();
+        single.put(0, 100);
+        single.putIfAbsent(1, 100);
+        assert single.capacity() == capacity : "Обновление не должно расширять сегмент";
+        single.put(12, 12);
+        assert single.capacity() == 2 * capacity : "Вставка сверх порога должна расширить сегмент";
+        assert single.get(0) == 100 && single.get(1) == 1 && single.get(12) == 12 : "Значения после расширения";
+
+        System.out.println("Тест ConcurrentDictionary пройден");
+    }
+
+    /**
+     * Ключ с одинаковым хеш-кодом для всех экземпляров (все попадают в одну ячейку).
+     */
+    private static class CollidingKey implements Comparable<CollidingKey> {
+        private final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int compareTo(CollidingKey other) {
+            return Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Тестирует ячейки, преобразованные в деревья, при полностью совпадающих хеш-кодах.
+     */
+    public static void testTreeifiedBins() {
+        Dictionary<CollidingKey, Integer> dict = new Dictionary<>();
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            dict.put(new CollidingKey(i), i);
+        }
+        dict.put(new CollidingKey(7), 700);
+        assert dict.size() == count : "Повторный ключ не должен увеличивать размер";
+        assert dict.get(new CollidingKey(7)) == 700 : "Значение должно обновиться";
+        for (int i = 0; i < count; i += 2) {
+            assert dict.remove(new CollidingKey(i)) != null : "Ключ " + i + " должен быть удален";
+        }
+        for (int i = 0; i < count; i++) {
+            assert (dict.get(new CollidingKey(i)) != null) == (i % 2 == 1) : "Неверный результат поиска для " + i;
+        }
+
+        int iterated = 0;
+        for (Dictionary.Entry<CollidingKey, Integer> entry : dict) {
+            assert entry.getKey() != null : "Итератор не должен возвращать заголовок дерева";
+            iterated++;
+        }
+        assert iterated == count / 2 : "Итератор должен обойти все элементы дерева";
+
+        System.out.println("Тест TreeifiedBins пройден");
+    }
+
+    /**
+     * Тестирует режим постепенного расширения: элементы доступны во время переноса,
+     * итератор обходит обе таблицы.
+     */
+    public static void testIncrementalResize() {
+        Dictionary<Integer, Integer> dict = new Dictionary<>(true);
+        int count = 50_000;
+        for (int i = 0; i < count; i++) {
+            dict.put(i, i);
+            if (i % 997 == 0) {
+                for (int j = 0; j <= i; j += 101) {
+                    assert dict.get(j) == j : "Ключ " + j + " должен быть доступен во время переноса";
+                }
+                int iterated = 0;
+                for (Dictionary.Entry<Integer, Integer> ignored : dict) {
+                    iterated++;
+                }
+                assert iterated == i + 1 : "Итератор должен учитывать обе таблицы";
+            }
+        }
+        for (int i = 0; i < count; i += 2) {
+            assert dict.remove(i) == i : "Ключ " + i + " должен быть удален";
+        }
+        assert dict.size() == count / 2 : "Размер должен быть " + count / 2;
+        for (int i = 1; i < count; i += 2) {
+            assert dict.get(i) == i : "Ключ " + i + " должен сохраниться";
+        }
+
+        System.out.println("Тест IncrementalResize пройден");
+    }
+
+    /**
+     * Тестирует FlatDictionary: добавление, обновление, удаление обратным сдвигом,
+     * расширение и итератор с записью значения через setValue().
+     */
+    public static void testFlatDictionary() {
+        FlatDictionary<Integer, String> dict = new FlatDictionary<>();
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            dict.put(i, "v" + i);
+        }
+        dict.put(5, "five");
+        assert dict.size() == count : "Повторный ключ не должен увеличивать размер";
+        assert dict.get(5).equals("five") : "Значение должно обновиться";
+
+        for (int i = 0; i < count; i += 3) {
+            assert dict.remove(i) != null : "Ключ " + i + " должен быть удален";
+        }
+        for (int i = 0; i < count; i++) {
+            assert dict.containsKey(i) == (i % 3 != 0) : "Неверный результат поиска для " + i;
+        }
+
+        int iterated = 0;
+        for (Dictionary.Entry<Integer, String> entry : dict) {
+            entry.setValue("x" + entry.getKey());
+            iterated++;
+        }
+        assert iterated == dict.size() : "Итератор должен обойти все элементы";
+        assert dict.get(1).equals("x1") : "setValue() должен изменять значение в словаре";
+
+        dict.clear();
+        assert dict.isEmpty() && dict.get(1) == null : "Словарь должен быть пустым после очистки";
+
+        System.out.println("Тест FlatDictionary пройден");
+    }
+
+    /**
+     * Тестирует представления keySet(), values() и entrySet():
+     * делегирование поиска и размера словарю и отражение его изменений.
+     */
+    public static void testViews() {
+        Dictionary<String, Integer> dict = new Dictionary<>();
+        dict.put("one", 1);
+        dict.put("two", 2);
+
+        Set<String> keys = dict.keySet();
+        Collection<Integer> values = dict.values();
+        assert keys.contains("one") && !keys.contains("three") : "contains() должен искать ключ в словаре";
+        assert keys.size() == 2 && values.size() == 2 : "Размер представлений должен совпадать с размером словаря";
+
+        dict.put("three", 3);
+        assert keys.contains("three") : "Представление должно отражать добавление";
+        assert values.contains(3) : "Значения должны отражать добавление";
+        assert dict.entrySet().size() == 3 : "Размер entrySet() должен быть 3";
+
+        keys.remove("one");
+        assert !dict.containsKey("one") : "Удаление через keySet() должно удалять из словаря";
+
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        assert sum == 5 : "Сумма значений должна быть 5";
+
+        System.out.println("Тест Views пройден");
+    }
+
+    /**
+     * Тестирует удаление через итераторы словаря и его представлений,
+     * в том числе во время постепенного расширения, и обнаружение изменений в обход итератора.
+     */
+    public static void testIteratorRemove() {
+        for (boolean incremental : new boolean[]{false, true}) {
+            Dictionary<Integer, String> dict = new Dictionary<>(incremental);
+            for (int i = 0; i < 1000; i++) {
+                dict.put(i, "v" + i);
+            }
+            Iterator<Dictionary.Entry<Integer, String>> it = dict.iterator();
+            while (it.hasNext()) {
+                if (it.next().getKey() % 2 == 0) {
+                    it.remove();
+                }
+            }
+            assert dict.size() == 500 : "После удаления должно остаться 500 элементов";
+            assert dict.get(2) == null && "v3".equals(dict.get(3)) : "Должны удаляться только четные ключи";
+
+            dict.keySet().removeIf(key -> key % 5 == 0);
+            assert dict.size() == 400 : "removeIf() через keySet() должен удалить 100 элементов";
+            assert !dict.containsKey(5) && dict.containsKey(7) : "Неверный результат removeIf()";
+
+            Iterator<Integer> stale = dict.keySet().iterator();
+            stale.next();
+            dict.put(-1, "new");
+            boolean exceptionThrown = false;
+            try {
+                stale.next();
+            } catch (ConcurrentModificationException e) {
+                exceptionThrown = true;
+            }
+            assert exceptionThrown : "Итератор должен обнаруживать изменение словаря";
+        }
+
+        System.out.println("Тест IteratorRemove пройден");
+    }
+
+    /**
+     * Тестирует предварительное выделение памяти: конструктор с ожидаемым размером,
+     * ensureCapacity() и putAll() из Dictionary и Map без расширений во время вставки.
+     */
+    public static void testBulkLoad() {
+        Dictionary<Integer, Integer> presized = new Dictionary<>(1000);
+        int capacity = presized.capacity();
+        for (int i = 0; i < 1000; i++) {
+            presized.put(i, i);
+        }
+        assert presized.capacity() == capacity : "Словарь с заданным размером не должен расширяться";
+
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int i = 1000; i < 5000; i++) {
+            map.put(i, i * 2);
+        }
+        Dictionary<Integer, Integer> dict = new Dictionary<>();
+        dict.putAll(presized);
+        capacity = dict.capacity();
+        dict.ensureCapacity(dict.size() + map.size());
+        assert dict.capacity() > capacity : "ensureCapacity() должен расширить таблицу";
+        capacity = dict.capacity();
+        dict.putAll(map);
+        assert dict.capacity() == capacity : "putAll() не должен расширять заранее подготовленную таблицу";
+        assert dict.size() == 5000 : "Размер после putAll() должен быть 5000";
+        assert dict.get(10) == 10 && dict.get(4999) == 9998 : "Значения должны копироваться";
+
+        Dictionary<Integer, Integer> incremental = new Dictionary<>(true);
+        for (int i = 0; i < 100; i++) {
+            incremental.put(i, i);
+        }
+        incremental.putAll(dict);
+        assert incremental.size() == 5000 : "putAll() должен завершать начатый перенос";
+        for (int i = 0; i < 5000; i += 97) {
+            assert incremental.containsKey(i) : "Ключ " + i + " должен находиться после putAll()";
+        }
+
+        System.out.println("Тест BulkLoad пройден");
+    }
+
+    /**
+     * Тестирует StringIntDictionary: добавление, обновление, удаление с обратным сдвигом,
+     * расширение и обход через forEach().
+     */
+    public static void testStringIntDictionary() {
+        StringIntDictionary dict = new StringIntDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dict.put("key" + i, i);
+        }
+        assert dict.size() == 1000 : "Размер должен быть 1000";
+        assert dict.getOrDefault("key500", -1) == 500 : "Значение для key500 должно быть 500";
+        assert dict.getOrDefault("missing", -1) == -1 : "Для отсутствующего ключа должно вернуться значение по умолчанию";
+
+        dict.put("key500", 0);
+        assert dict.getOrDefault("key500", -1) == 0 : "Значение должно обновиться";
+        assert dict.size() == 1000 : "Обновление не должно менять размер";
+
+        for (int i = 0; i < 1000; i += 2) {
+            assert dict.remove("key" + i) : "Ключ key" + i + " должен быть удален";
+        }
+        assert !dict.remove("key0") : "Повторное удаление должно вернуть false";
+        for (int i = 0; i < 1000; i++) {
+            assert dict.containsKey("key" + i) == (i % 2 == 1) : "Неверный результат поиска для key" + i;
+        }
+
+        long[] sum = new long[1];
+        int[] count = new int[1];
+        dict.forEach((key, value) -> {
+            sum[0] += value;
+            count[0]++;
+        });
+        assert count[0] == 500 && sum[0] == 250000 : "forEach() должен обойти все 500 элементов";
+
+        dict.clear();
+        assert dict.isEmpty() && !dict.containsKey("key1") : "Словарь должен быть пуст после очистки";
+
+        boolean exceptionThrown = false;
+        try {
+            new StringIntDictionary(Integer.MAX_VALUE);
+        } catch (IllegalArgumentException e) {
+            exceptionThrown = true;
+        }
+        assert exceptionThrown : "Слишком большой ожидаемый размер должен отклоняться";
+
+        System.out.println("Тест StringIntDictionary пройден");
+    }
+
+    /**
+     * Тестирует итератор во время постепенного расширения: обновление значений
+     * существующих ключей и удаление отсутствующих не переносят ячейки и не приводят
+     * к пропуску элементов.
+     */
+    public static void testIterationDuringMigration() {
+        for (int count = 13; count <= 300; count++) {
+            Dictionary<Integer, Integer> dict = new Dictionary<>(true);
+            for (int i = 0; i < count; i++) {
+                dict.put(i, i);
+            }
+            int iterated = 0;
+            for (Dictionary.Entry<Integer, Integer> entry : dict) {
+                dict.put(entry.getKey(), entry.getValue() + 1);
+                dict.remove(-1);
+                iterated++;
+            }
+            assert iterated == count : "Обход при " + count + " элементах посетил " + iterated;
+            for (int i = 0; i < count; i++) {
+                assert dict.get(i) == i + 1 : "Значение ключа " + i + " должно обновиться один раз";
+            }
+        }
+
+        System.out.println("Тест IterationDuringMigration пройден");
+    }
+
+    /**
+     * Тестирует быстрый отказ итератора во время постепенного расширения:
+     * вставка и удаление в обход итератора вызывают ConcurrentModificationException,
+     * а удаление через итератор - нет.
+     */
+    public static void testFailFastDuringMigration() {
+        for (int count = 13; count <= 300; count++) {
+            Dictionary<Integer, Integer> dict = new Dictionary<>(true);
+            for (int i = 0; i < count; i++) {
+                dict.put(i, i);
+            }
+
+            boolean exceptionThrown = false;
+            try {
+                for (Dictionary.Entry<Integer, Integer> entry : dict) {
+                    dict.put(count + entry.getKey(), 0);
+                }
+            } catch (ConcurrentModificationException e) {
+                exceptionThrown = true;
+            }
+            assert exceptionThrown : "Вставка во время обхода должна обнаруживаться при " + count + " элементах";
+
+            exceptionThrown = false;
+            try {
+                for (Dictionary.Entry<Integer, Integer> entry : dict) {
+                    dict.remove(entry.getKey());
+                }
+            } catch (ConcurrentModificationException e) {
+                exceptionThrown = true;
+            }
+            assert exceptionThrown : "Удаление во время обхода должно обнаруживаться при " + count + " элементах";
+
+            int remaining = dict.size();
+            Iterator<Dictionary.Entry<Integer, Integer>> it = dict.iterator();
+            while (it.hasNext()) {
+                it.next();
+                it.remove();
+                remaining--;
+            }
+            assert remaining == 0 && dict.isEmpty() : "Удаление через итератор должно пройти по всем элементам";
+        }
+
+        System.out.println("Тест FailFastDuringMigration пройден");
+    }
+}
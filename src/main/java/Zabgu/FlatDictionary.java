@@ -0,0 +1,236 @@
+package Zabgu;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Словарь с открытой адресацией на параллельных массивах keys[], values[] и hashes[].
+ * В отличие от Dictionary, элементы не являются отдельными объектами со ссылкой next:
+ * поиск идет по соседним ячейкам массивов (линейное пробирование), а закешированный
+ * хеш сравнивается до вызова equals(). Удаление выполняется обратным сдвигом,
+ * поэтому маркеры удаленных элементов не нужны. Пробирование вынесено в LinearProbing.
+ * Предоставляет тот же набор операций, что и Dictionary: put, get, remove, итератор.
+ *
+ * @param <K> тип ключей, должен правильно реализовывать hashCode() и equals()
+ * @param <V> тип значений
+ */
+public class FlatDictionary<K, V> implements Iterable<Dictionary.Entry<K, V>> {
+    private static final int DEFAULT_CAPACITY = 16;             // Начальная емкость таблицы по умолчанию
+    private static final float LOAD_FACTOR = 0.5f;              // Коэффициент загрузки (ниже, чем у цепочек, из-за кластеризации)
+    private K[] keys;                                           // Ключи (null - пустая ячейка)
+    private V[] values;                                         // Значения
+    private int[] hashes;                                       // Закешированные хеши ключей
+    private int size;                                           // Текущее количество элементов
+
+    /**
+     * Конструктор создает пустой словарь с начальной емкостью по умолчанию.
+     */
+    public FlatDictionary() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Добавляет или обновляет пару ключ-значение в словаре.
+     * @param key ключ для добавления/обновления
+     * @param value соответствующее значение
+     * @throws IllegalArgumentException если ключ равен null
+     */
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Ключ не может быть нулевым");
+        }
+        int hash = hash(key);
+        int index = LinearProbing.find(keys, hashes, key, hash);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        index = -index - 1;
+        keys[index] = key;
+        values[index] = value;
+        hashes[index] = hash;
+        if (++size > keys.length * LOAD_FACTOR) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Возвращает значение по ключу.
+     * @param key ключ для поиска
+     * @return найденное значение или null, если ключ отсутствует
+     */
+    public V get(K key) {
+        if (key == null) return null;
+        int index = indexOf(key);
+        return (index >= 0) ? values[index] : null;
+    }
+
+    /**
+     * Удаляет элемент по ключу.
+     * @param key ключ элемента для удаления
+     * @return удаленное значение или null, если ключ не найден
+     */
+    public V remove(K key) {
+        if (key == null) return null;
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V oldValue = values[index];
+        shiftBackward(index);
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Проверяет наличие ключа в словаре.
+     * @param key ключ для проверки
+     * @return true если ключ присутствует, иначе false
+     */
+    public boolean containsKey(K key) {
+        return key != null && indexOf(key) >= 0;
+    }
+
+    /**
+     * Возвращает текущее количество элементов в словаре.
+     * @return количество элементов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пуст ли словарь.
+     * @return true если словарь пуст, иначе false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Очищает словарь, сохраняя текущую емкость.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Возвращает итератор по элементам словаря. Элементы создаются при обходе;
+     * setValue() записывает значение обратно в словарь.
+     * @return итератор элементов
+     */
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return new FlatDictionaryIterator();
+    }
+
+    /**
+     * Элемент, возвращаемый итератором: изменение значения передается в словарь.
+     */
+    private class FlatEntry extends Dictionary.Entry<K, V> {
+        FlatEntry(int hash, K key, V value) {
+            super(hash, key, value, null);
+        }
+
+        @Override
+        public void setValue(V value) {
+            super.setValue(value);
+            put(getKey(), value);
+        }
+    }
+
+    /**
+     * Итератор по занятым ячейкам массивов.
+     */
+    private class FlatDictionaryIterator implements Iterator<Dictionary.Entry<K, V>> {
+        private int currentIndex = 0;
+
+        @Override
+        public boolean hasNext() {
+            while (currentIndex < keys.length && keys[currentIndex] == null) {
+                currentIndex++;
+            }
+            return currentIndex < keys.length;
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            FlatEntry entry = new FlatEntry(hashes[currentIndex], keys[currentIndex], values[currentIndex]);
+            currentIndex++;
+            return entry;
+        }
+    }
+
+    /**
+     * Ищет ячейку с ключом.
+     * @param key ключ (не null)
+     * @return индекс ячейки или -1, если ключ не найден
+     */
+    private int indexOf(K key) {
+        int index = LinearProbing.find(keys, hashes, key, hash(key));
+        return (index >= 0) ? index : -1;
+    }
+
+    /**
+     * Освобождает ячейку, сдвигая назад следующие элементы кластера
+     * (выбор элементов - LinearProbing.nextToShift()).
+     * @param index индекс освобождаемой ячейки
+     */
+    private void shiftBackward(int index) {
+        int next;
+        while ((next = LinearProbing.nextToShift(keys, hashes, index)) >= 0) {
+            keys[index] = keys[next];
+            values[index] = values[next];
+            hashes[index] = hashes[next];
+            index = next;
+        }
+        keys[index] = null;
+        values[index] = null;
+    }
+
+    /**
+     * Перестраивает массивы нового размера, используя закешированные хеши.
+     * @param newCapacity новый размер (степень двойки)
+     */
+    private void resize(int newCapacity) {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = LinearProbing.freeSlot(keys, oldHashes[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Создает пустые массивы заданного размера.
+     * @param capacity размер массивов
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = (K[]) new Object[capacity];
+        values = (V[]) new Object[capacity];
+        hashes = new int[capacity];
+    }
+
+    /**
+     * Вычисляет перемешанный хеш-код ключа.
+     * @param key ключ для хеширования
+     * @return хеш-код ключа
+     */
+    private int hash(K key) {
+        return HashTable.spread(key.hashCode());
+    }
+}
@@ -1,29 +1,115 @@
 package Zabgu;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.function.Function;
 
 /**
  * Реализация хеш-таблицы с методом открытой адресации (линейное пробирование).
+ * В режиме автоматического роста таблица отслеживает число действительных и удаленных
+ * элементов и при превышении коэффициента загрузки перестраивается в массив большего размера
+ * (степень двойки), отбрасывая удаленные элементы.
+ * Вместо линейного пробирования может использоваться схема Robin Hood
+ * (см. {@link ProbingMode#ROBIN_HOOD}).
  * @param <T> тип хранимых данных
  */
 public class HashTable<T> implements Iterable<DataItem<T>> {
+    /**
+     * Схема разрешения коллизий.
+     */
+    public enum ProbingMode {
+        /** Линейное пробирование; удаленные элементы заменяются маркером nonItem. */
+        LINEAR,
+        /**
+         * Robin Hood: при вставке элемент, находящийся ближе к своей исходной ячейке,
+         * уступает место более "бедному" элементу. Поиск промаха завершается, как только
+         * смещение текущей ячейки меньше пройденного расстояния, а удаление выполняется
+         * обратным сдвигом без маркеров удаленных элементов.
+         */
+        ROBIN_HOOD
+    }
+
     private DataItem<T>[] hashArray;                // Массив для хранения элементов
-    private int arraySize;                          // Размер массива
+    private int arraySize;                          // Размер массива (степень двойки)
+    private int mask;                               // Маска индекса (arraySize - 1)
     private DataItem<T> nonItem;                    // Специальный маркер для удаленных элементов
     private Function<T, Integer> hashFunction;      // Функция для вычисления хеша
+    private final boolean autoGrow;                 // Включен ли режим автоматического роста
+    private final float loadFactor;                 // Предельный коэффициент загрузки (для режима роста)
+    private int count;                              // Количество действительных элементов
+    private int deletedCount;                       // Количество удаленных элементов (nonItem)
+    private long operations;                        // Количество выполненных операций поиска/вставки/удаления
+    private long totalProbes;                       // Суммарное количество просмотренных ячеек
+    private int maxProbeLength;                     // Наибольшая длина последовательности проб
+    private int modCount;                           // Счетчик структурных изменений (для итераторов)
+    private final ProbingMode probingMode;          // Схема разрешения коллизий
+    private int[] distances;                        // Смещения элементов от исходных ячеек (для Robin Hood)
 
     /**
-     * Создает новую хеш-таблицу.
+     * Создает новую хеш-таблицу фиксированного размера с линейным пробированием.
+     * Размер округляется вверх до степени двойки.
      * @param size размер таблицы
      * @param hashFunction функция для вычисления хеш-кода
      */
-    @SuppressWarnings("unchecked")
     public HashTable(int size, Function<T, Integer> hashFunction){
-        this.arraySize = size;
+        this(size, hashFunction, ProbingMode.LINEAR);
+    }
+
+    /**
+     * Создает новую хеш-таблицу фиксированного размера.
+     * Размер округляется вверх до степени двойки.
+     * @param size размер таблицы
+     * @param hashFunction функция для вычисления хеш-кода
+     * @param probingMode схема разрешения коллизий
+     */
+    @SuppressWarnings("unchecked")
+    public HashTable(int size, Function<T, Integer> hashFunction, ProbingMode probingMode){
+        this.arraySize = powerOfTwoFor(size);
+        this.mask = this.arraySize - 1;
         this.hashArray = new DataItem[this.arraySize];
         this.nonItem = new DataItem<>(null);
         this.hashFunction = hashFunction;
+        this.autoGrow = false;
+        this.loadFactor = 1.0f;
+        this.probingMode = probingMode;
+        this.distances = probingMode == ProbingMode.ROBIN_HOOD ? new int[this.arraySize] : null;
+    }
+
+    /**
+     * Создает новую хеш-таблицу с автоматическим ростом и линейным пробированием.
+     * Начальный размер округляется вверх до степени двойки.
+     * @param size начальный размер таблицы
+     * @param hashFunction функция для вычисления хеш-кода
+     * @param loadFactor предельная доля занятых ячеек (вместе с удаленными), от 0 до 1
+     * @throws IllegalArgumentException если коэффициент загрузки вне интервала (0, 1)
+     */
+    public HashTable(int size, Function<T, Integer> hashFunction, float loadFactor){
+        this(size, hashFunction, loadFactor, ProbingMode.LINEAR);
+    }
+
+    /**
+     * Создает новую хеш-таблицу с автоматическим ростом.
+     * Начальный размер округляется вверх до степени двойки.
+     * @param size начальный размер таблицы
+     * @param hashFunction функция для вычисления хеш-кода
+     * @param loadFactor предельная доля занятых ячеек (вместе с удаленными), от 0 до 1
+     * @param probingMode схема разрешения коллизий
+     * @throws IllegalArgumentException если коэффициент загрузки вне интервала (0, 1)
+     */
+    @SuppressWarnings("unchecked")
+    public HashTable(int size, Function<T, Integer> hashFunction, float loadFactor, ProbingMode probingMode){
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Коэффициент загрузки должен быть в интервале (0, 1)");
+        }
+        this.arraySize = powerOfTwoFor(size);
+        this.mask = this.arraySize - 1;
+        this.hashArray = (DataItem<T>[]) new DataItem<?>[this.arraySize];
+        this.nonItem = new DataItem<>(null);
+        this.hashFunction = hashFunction;
+        this.autoGrow = true;
+        this.loadFactor = loadFactor;
+        this.probingMode = probingMode;
+        this.distances = probingMode == ProbingMode.ROBIN_HOOD ? new int[this.arraySize] : null;
     }
 
     /**
@@ -49,34 +135,217 @@ public class HashTable<T> implements Iterable<DataItem<T>> {
      * @return найденный элемент или null
      */
     public DataItem<T> find(T key){
+        if (probingMode == ProbingMode.ROBIN_HOOD) {
+            int index = findRobinHood(key);
+            return index < 0 ? null : hashArray[index];
+        }
+
         int hashVal = hashFunc(key);
         int startIndex = hashVal;
+        int probes = 1;
 
         while (hashArray[hashVal] != null){
             if (hashArray[hashVal] != nonItem && hashArray[hashVal].getKey().equals(key)){
+                recordProbes(probes);
                 return hashArray[hashVal];
             }
-            hashVal = (hashVal + 1) % arraySize;
+            hashVal = (hashVal + 1) & mask;
+            probes++;
 
             if (hashVal == startIndex){
                 break;
             }
         }
+        recordProbes(probes);
         return null;
     }
 
     /**
      * Вставка нового элемента в таблицу.
+     * В режиме роста при превышении коэффициента загрузки таблица предварительно перестраивается.
      * @param item элемент для вставки
+     * @throws IllegalStateException если таблица фиксированного размера заполнена
      */
     public void insert(DataItem<T> item){
+        if (autoGrow && count + deletedCount + 1 > arraySize * loadFactor) {
+            rehash();
+        }
+        if (probingMode == ProbingMode.ROBIN_HOOD) {
+            if (count == arraySize) {
+                throw new IllegalStateException("Хеш-таблица заполнена");
+            }
+            recordProbes(placeRobinHood(item));
+            count++;
+            modCount++;
+            return;
+        }
+
         T key = item.getKey();
         int hashVal = hashFunc(key);
+        int startIndex = hashVal;
+        int probes = 1;
 
         while (hashArray[hashVal] != null && hashArray[hashVal] != nonItem){
-            hashVal = (hashVal + 1) % arraySize;
+            hashVal = (hashVal + 1) & mask;
+            probes++;
+
+            if (hashVal == startIndex){
+                throw new IllegalStateException("Хеш-таблица заполнена");
+            }
+        }
+        recordProbes(probes);
+        if (hashArray[hashVal] == nonItem) {
+            deletedCount--;
         }
         hashArray[hashVal] = item;
+        count++;
+        modCount++;
+    }
+
+    /**
+     * Перестраивает таблицу, отбрасывая удаленные элементы.
+     * Если действительных элементов больше половины допустимой загрузки,
+     * размер массива удваивается, иначе только очищаются удаленные элементы.
+     */
+    @SuppressWarnings("unchecked")
+    private void rehash(){
+        DataItem<T>[] oldArray = hashArray;
+        int newSize = (count + 1 > arraySize * loadFactor / 2) ? arraySize * 2 : arraySize;
+
+        arraySize = newSize;
+        mask = arraySize - 1;
+        hashArray = (DataItem<T>[]) new DataItem<?>[arraySize];
+        deletedCount = 0;
+        if (probingMode == ProbingMode.ROBIN_HOOD) {
+            distances = new int[arraySize];
+        }
+
+        for (DataItem<T> item : oldArray) {
+            if (item != null && item != nonItem) {
+                if (probingMode == ProbingMode.ROBIN_HOOD) {
+                    placeRobinHood(item);
+                    continue;
+                }
+                int hashVal = hashFunc(item.getKey());
+                while (hashArray[hashVal] != null) {
+                    hashVal = (hashVal + 1) & mask;
+                }
+                hashArray[hashVal] = item;
+            }
+        }
+    }
+
+    /**
+     * Округляет размер вверх до ближайшей степени двойки.
+     * @param size требуемый размер
+     * @return степень двойки, не меньшая size (минимум 2)
+     */
+    private static int powerOfTwoFor(int size){
+        int n = 2;
+        while (n < size) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    /**
+     * Вставляет элемент или заменяет элемент с тем же ключом.
+     * Выполняется за один проход последовательности проб.
+     * @param item элемент для вставки
+     * @return замененный элемент или null, если ключа в таблице не было
+     * @throws IllegalStateException если таблица фиксированного размера заполнена
+     */
+    public DataItem<T> insertOrReplace(DataItem<T> item){
+        return upsert(item, true);
+    }
+
+    /**
+     * Вставляет элемент, только если элемента с таким ключом в таблице нет.
+     * Выполняется за один проход последовательности проб.
+     * @param item элемент для вставки
+     * @return уже существующий элемент с тем же ключом или null, если элемент вставлен
+     * @throws IllegalStateException если таблица фиксированного размера заполнена
+     */
+    public DataItem<T> putIfAbsent(DataItem<T> item){
+        return upsert(item, false);
+    }
+
+    /**
+     * Общий проход для insertOrReplace и putIfAbsent: ищет ключ и одновременно
+     * запоминает первую ячейку, пригодную для вставки (удаленную или пустую).
+     * @param item элемент для вставки
+     * @param replace заменять ли найденный элемент
+     * @return найденный элемент с тем же ключом или null
+     */
+    private DataItem<T> upsert(DataItem<T> item, boolean replace){
+        if (autoGrow && count + deletedCount + 1 > arraySize * loadFactor) {
+            rehash();
+        }
+
+        T key = item.getKey();
+        int hashVal = hashFunc(key);
+
+        if (probingMode == ProbingMode.ROBIN_HOOD) {
+            int distance = 0;
+            while (hashArray[hashVal] != null && distance <= distances[hashVal]) {
+                if (hashArray[hashVal].getKey().equals(key)) {
+                    recordProbes(distance + 1);
+                    DataItem<T> existing = hashArray[hashVal];
+                    if (replace) {
+                        hashArray[hashVal] = item;
+                    }
+                    return existing;
+                }
+                hashVal = (hashVal + 1) & mask;
+                distance++;
+            }
+            if (count == arraySize) {
+                throw new IllegalStateException("Хеш-таблица заполнена");
+            }
+            // Ключ отсутствует: вставка продолжается с ячейки, где остановился поиск
+            recordProbes(distance + placeRobinHood(item, hashVal, distance));
+            count++;
+            modCount++;
+            return null;
+        }
+
+        int startIndex = hashVal;
+        int freeSlot = -1;
+        int probes = 1;
+
+        while (hashArray[hashVal] != null){
+            if (hashArray[hashVal] == nonItem) {
+                if (freeSlot < 0) {
+                    freeSlot = hashVal;
+                }
+            } else if (hashArray[hashVal].getKey().equals(key)) {
+                recordProbes(probes);
+                DataItem<T> existing = hashArray[hashVal];
+                if (replace) {
+                    hashArray[hashVal] = item;
+                }
+                return existing;
+            }
+            hashVal = (hashVal + 1) & mask;
+            probes++;
+
+            if (hashVal == startIndex){
+                break;
+            }
+        }
+        recordProbes(probes);
+
+        if (freeSlot >= 0) {
+            deletedCount--;
+        } else if (hashArray[hashVal] == null) {
+            freeSlot = hashVal;
+        } else {
+            throw new IllegalStateException("Хеш-таблица заполнена");
+        }
+        hashArray[freeSlot] = item;
+        count++;
+        modCount++;
+        return null;
     }
 
     /**
@@ -85,54 +354,288 @@ public class HashTable<T> implements Iterable<DataItem<T>> {
      * @return удаленный элемент или null
      */
     public DataItem<T> delete(T key){
+        if (probingMode == ProbingMode.ROBIN_HOOD) {
+            int index = findRobinHood(key);
+            if (index < 0) {
+                return null;
+            }
+            DataItem<T> temp = hashArray[index];
+            removeAt(index);
+            return temp;
+        }
+
         int hashVal = hashFunc(key);
         int startIndex = hashVal;
+        int probes = 1;
 
         while (hashArray[hashVal] != null){
             if (hashArray[hashVal] != nonItem && hashArray[hashVal].getKey().equals(key)){
+                recordProbes(probes);
                 DataItem<T> temp = hashArray[hashVal];
-                hashArray[hashVal] = nonItem;
+                removeAt(hashVal);
                 return temp;
             }
-            hashVal = (hashVal + 1) % arraySize;
+            hashVal = (hashVal + 1) & mask;
+            probes++;
 
             if (hashVal == startIndex){
                 break;
             }
         }
+        recordProbes(probes);
         return null;
     }
 
     /**
-     * Очистка таблицы (все элементы становятся null).
+     * Удаляет элемент из ячейки: при линейном пробировании ставит маркер nonItem,
+     * в режиме Robin Hood выполняет обратный сдвиг.
+     * @param index индекс занятой ячейки
+     * @return true если в ячейку сдвинут следующий элемент кластера
      */
-    public void clear(){
-        for (int i = 0; i < arraySize; i++) {
-            hashArray[i] = null;
+    boolean removeAt(int index){
+        count--;
+        modCount++;
+        if (probingMode == ProbingMode.ROBIN_HOOD) {
+            shiftBackward(index);
+            return hashArray[index] != null;
         }
+        hashArray[index] = nonItem;
+        deletedCount++;
+        return false;
     }
 
     /**
-     * Возвращает количество элементов в таблице.
-     * @return количество действительных элементов
+     * Возвращает индекс ячейки, с которой итератор начинает циклический обход.
+     * В режиме Robin Hood это пустая ячейка (или элемент в своей исходной ячейке):
+     * обратный сдвиг никогда не переносит элементы через нее, поэтому удаление
+     * при обходе не перемещает уже пройденные элементы.
+     * @return начальный индекс обхода
      */
-    public int tableSize(){
-        int count = 0;
+    int iterationStart(){
+        if (probingMode != ProbingMode.ROBIN_HOOD) {
+            return 0;
+        }
+        for (int i = 0; i < arraySize; i++) {
+            if (hashArray[i] == null) {
+                return i;
+            }
+        }
         for (int i = 0; i < arraySize; i++) {
-            if (hashArray[i] != null && hashArray[i] != nonItem) {
-                count++;
+            if (distances[i] == 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Возвращает счетчик структурных изменений таблицы.
+     * @return значение счетчика
+     */
+    int getModCount(){
+        return modCount;
+    }
+
+    /**
+     * Поиск индекса ключа по схеме Robin Hood.
+     * Промах фиксируется при пустой ячейке или когда смещение элемента в ячейке
+     * меньше расстояния, пройденного от исходной ячейки ключа.
+     * @param key искомый ключ
+     * @return индекс найденного элемента или -1
+     */
+    private int findRobinHood(T key){
+        int hashVal = hashFunc(key);
+        int distance = 0;
+
+        while (hashArray[hashVal] != null && distance <= distances[hashVal]) {
+            if (hashArray[hashVal].getKey().equals(key)) {
+                recordProbes(distance + 1);
+                return hashVal;
             }
+            hashVal = (hashVal + 1) & mask;
+            distance++;
         }
+        recordProbes(distance + 1);
+        return -1;
+    }
+
+    /**
+     * Размещает элемент по схеме Robin Hood: при встрече элемента с меньшим смещением
+     * они меняются местами, и дальше размещается вытесненный элемент.
+     * Таблица должна содержать хотя бы одну свободную ячейку.
+     * @param item элемент для размещения
+     * @return количество просмотренных ячеек
+     */
+    private int placeRobinHood(DataItem<T> item){
+        return placeRobinHood(item, hashFunc(item.getKey()), 0);
+    }
+
+    /**
+     * Размещает элемент по схеме Robin Hood, продолжая пробирование с заданной ячейки.
+     * @param item элемент для размещения
+     * @param hashVal индекс ячейки, с которой продолжается пробирование
+     * @param distance расстояние этой ячейки от исходной ячейки элемента
+     * @return количество просмотренных ячеек, начиная с hashVal
+     */
+    private int placeRobinHood(DataItem<T> item, int hashVal, int distance){
+        int probes = 1;
+
+        while (hashArray[hashVal] != null) {
+            if (distances[hashVal] < distance) {
+                DataItem<T> displaced = hashArray[hashVal];
+                int displacedDistance = distances[hashVal];
+                hashArray[hashVal] = item;
+                distances[hashVal] = distance;
+                item = displaced;
+                distance = displacedDistance;
+            }
+            hashVal = (hashVal + 1) & mask;
+            distance++;
+            probes++;
+        }
+        hashArray[hashVal] = item;
+        distances[hashVal] = distance;
+        return probes;
+    }
+
+    /**
+     * Удаляет элемент из ячейки обратным сдвигом: следующие элементы кластера,
+     * стоящие не в своей исходной ячейке, сдвигаются на одну позицию назад.
+     * @param index индекс удаляемого элемента
+     */
+    private void shiftBackward(int index){
+        int next = (index + 1) & mask;
+        while (hashArray[next] != null && distances[next] > 0) {
+            hashArray[index] = hashArray[next];
+            distances[index] = distances[next] - 1;
+            index = next;
+            next = (next + 1) & mask;
+        }
+        hashArray[index] = null;
+    }
+
+    /**
+     * Очистка таблицы (все элементы становятся null).
+     */
+    public void clear(){
+        Arrays.fill(hashArray, null);
+        modCount++;
+        count = 0;
+        deletedCount = 0;
+    }
+
+    /**
+     * Возвращает количество элементов в таблице за O(1).
+     * @return количество действительных элементов
+     */
+    public int tableSize(){
         return count;
     }
 
+    /**
+     * Возвращает количество удаленных элементов (nonItem), занимающих ячейки.
+     * @return количество удаленных элементов
+     */
+    public int getDeletedCount(){
+        return deletedCount;
+    }
+
+    /**
+     * Возвращает снимок статистики таблицы: заполненность и длины проб.
+     * @return статистика таблицы
+     */
+    public Stats getStats(){
+        return new Stats(count, deletedCount, arraySize, operations, totalProbes, maxProbeLength);
+    }
+
+    /**
+     * Сбрасывает накопленную статистику длин проб.
+     */
+    public void resetStats(){
+        operations = 0;
+        totalProbes = 0;
+        maxProbeLength = 0;
+    }
+
+    /**
+     * Учитывает длину последовательности проб одной операции.
+     * @param probes количество просмотренных ячеек
+     */
+    private void recordProbes(int probes){
+        operations++;
+        totalProbes += probes;
+        if (probes > maxProbeLength) {
+            maxProbeLength = probes;
+        }
+    }
+
+    /**
+     * Снимок статистики хеш-таблицы.
+     */
+    public static class Stats {
+        public final int liveCount;             // Количество действительных элементов
+        public final int deletedCount;          // Количество удаленных элементов
+        public final int arraySize;             // Размер внутреннего массива
+        public final long operations;           // Количество операций поиска/вставки/удаления
+        public final long totalProbes;          // Суммарное количество просмотренных ячеек
+        public final int maxProbeLength;        // Наибольшая длина последовательности проб
+
+        Stats(int liveCount, int deletedCount, int arraySize, long operations, long totalProbes, int maxProbeLength) {
+            this.liveCount = liveCount;
+            this.deletedCount = deletedCount;
+            this.arraySize = arraySize;
+            this.operations = operations;
+            this.totalProbes = totalProbes;
+            this.maxProbeLength = maxProbeLength;
+        }
+
+        /**
+         * Возвращает коэффициент загрузки (доля ячеек с действительными элементами).
+         * @return коэффициент загрузки
+         */
+        public double loadFactor() {
+            return (double) liveCount / arraySize;
+        }
+
+        /**
+         * Возвращает среднюю длину последовательности проб.
+         * @return средняя длина проб или 0, если операций не было
+         */
+        public double averageProbeLength() {
+            return operations == 0 ? 0 : (double) totalProbes / operations;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("элементов: %d, удаленных: %d, размер: %d, средняя длина проб: %.2f, максимальная: %d",
+                    liveCount, deletedCount, arraySize, averageProbeLength(), maxProbeLength);
+        }
+    }
+
     /**
      * Вычисляет хеш для ключа.
+     * Результат пользовательской хеш-функции перемешивается, поэтому маска
+     * младших битов дает равномерный и всегда неотрицательный индекс.
      * @param key ключ для хеширования
      * @return индекс в массиве
      */
     private int hashFunc(T key){
-        return hashFunction.apply(key) % arraySize;
+        return spread(hashFunction.apply(key)) & mask;
+    }
+
+    /**
+     * Перемешивает биты хеш-кода (финализатор MurmurHash3), чтобы старшие биты
+     * влияли на младшие и слабые хеш-функции не приводили к кластеризации.
+     * @param h исходный хеш-код
+     * @return перемешанный хеш-код
+     */
+    static int spread(int h){
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
     }
 
     /**
@@ -160,6 +663,14 @@ public class HashTable<T> implements Iterable<DataItem<T>> {
         return nonItem;
     }
 
+    /**
+     * Возвращает схему разрешения коллизий.
+     * @return схема пробирования
+     */
+    public ProbingMode getProbingMode() {
+        return probingMode;
+    }
+
     /**
      * Возвращает размер таблицы.
      * @return размер внутреннего массива
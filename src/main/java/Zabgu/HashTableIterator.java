@@ -1,17 +1,23 @@
 package Zabgu;
 
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 /**
  * Итератор для хеш-таблицы, реализующий обход только действительных элементов.
  * Пропускает пустые ячейки (null) и удаленные элементы (nonItem).
+ * Поддерживает удаление текущего элемента (remove) и быстро отказывает (fail-fast):
+ * при изменении таблицы в обход итератора бросается ConcurrentModificationException.
  *
  * @param <T> тип данных в хеш-таблице
  */
 public class HashTableIterator<T> implements Iterator<DataItem<T>> {
     private final HashTable<T> hashTable;           // Ссылка на хеш-таблицу для итерации
-    private int currentIndex = 0;                   // Текущий индекс в массиве хеш-таблицы
+    private final int startIndex;                   // Индекс, с которого начинается циклический обход
+    private int offset = 0;                         // Количество пройденных ячеек от startIndex
+    private int lastIndex = -1;                     // Индекс последнего возвращенного элемента
+    private int expectedModCount;                   // Ожидаемое значение счетчика изменений
 
     /**
      * Создает новый итератор для указанной хеш-таблицы
@@ -19,6 +25,8 @@ public class HashTableIterator<T> implements Iterator<DataItem<T>> {
      */
     public HashTableIterator(HashTable<T> hashTable) {
         this.hashTable = hashTable;
+        this.startIndex = hashTable.iterationStart();
+        this.expectedModCount = hashTable.getModCount();
     }
 
     /**
@@ -28,24 +36,65 @@ public class HashTableIterator<T> implements Iterator<DataItem<T>> {
     @Override
     public boolean hasNext() {
         // Пропускаем пустые ячейки и deleted-элементы
-        while (currentIndex < hashTable.getArraySize() &&
-                (hashTable.getHashArray()[currentIndex] == null ||
-                        hashTable.getHashArray()[currentIndex] == hashTable.getNonItem())) {
-            currentIndex++;
+        while (offset < hashTable.getArraySize() &&
+                (hashTable.getHashArray()[currentIndex()] == null ||
+                        hashTable.getHashArray()[currentIndex()] == hashTable.getNonItem())) {
+            offset++;
         }
-        return currentIndex < hashTable.getArraySize();
+        return offset < hashTable.getArraySize();
     }
 
     /**
      * Возвращает следующий действительный элемент таблицы
      * @return следующий элемент DataItem<T>
      * @throws NoSuchElementException если достигнут конец таблицы
+     * @throws ConcurrentModificationException если таблица изменена в обход итератора
      */
     @Override
     public DataItem<T> next() {
+        checkForComodification();
         if (!hasNext()) {
             throw new NoSuchElementException("Нет больше элементов в хеш-таблице");
         }
-        return hashTable.getHashArray()[currentIndex++];
+        lastIndex = currentIndex();
+        offset++;
+        return hashTable.getHashArray()[lastIndex];
     }
-}
\ No newline at end of file
+
+    /**
+     * Удаляет последний возвращенный элемент. Если на его место обратным сдвигом
+     * перенесен следующий элемент (режим Robin Hood), эта ячейка будет просмотрена снова.
+     * @throws IllegalStateException если next() не вызывался или элемент уже удален
+     * @throws ConcurrentModificationException если таблица изменена в обход итератора
+     */
+    @Override
+    public void remove() {
+        if (lastIndex < 0) {
+            throw new IllegalStateException();
+        }
+        checkForComodification();
+        if (hashTable.removeAt(lastIndex)) {
+            offset--;
+        }
+        lastIndex = -1;
+        expectedModCount = hashTable.getModCount();
+    }
+
+    /**
+     * Вычисляет индекс текущей ячейки в массиве.
+     * @return индекс ячейки
+     */
+    private int currentIndex() {
+        return (startIndex + offset) % hashTable.getArraySize();
+    }
+
+    /**
+     * Проверяет, что таблица не изменялась в обход итератора.
+     * @throws ConcurrentModificationException если таблица была изменена
+     */
+    private void checkForComodification() {
+        if (hashTable.getModCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+}
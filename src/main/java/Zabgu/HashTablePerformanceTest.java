@@ -28,12 +28,8 @@ public class HashTablePerformanceTest {
         int[] times = new int[sizes.length];
         Random rand = new Random();
 
-        // Хеш-функция с улучшенным распределением
-        Function<Integer, Integer> hashFunction = key -> {
-            key = ((key >> 16) ^ key) * 0x45d9f3b;
-            key = ((key >> 16) ^ key) * 0x45d9f3b;
-            return (key >> 16) ^ key;
-        };
+        // Биты хеш-кода перемешивает сама таблица, поэтому достаточно самого ключа
+        Function<Integer, Integer> hashFunction = key -> key;
 
         for (int i = 0; i < sizes.length; i++) {
             int size = sizes[i];
@@ -43,10 +39,9 @@ public class HashTablePerformanceTest {
             // Заполняем таблицу уникальными значениями
             for (int j = 0; j < size; j++) {
                 int value = rand.nextInt(size * 10);
-                while (table.find(value) != null) {
+                while (table.putIfAbsent(new DataItem<>(value)) != null) {
                     value = rand.nextInt(size * 10);
                 }
-                table.insert(new DataItem<>(value));
             }
 
             // Подготовка значений для поиска (50% существующих, 50% случайных)
@@ -71,6 +66,59 @@ public class HashTablePerformanceTest {
         createChart(times);
     }
 
+    /**
+     * Сравнивает линейное пробирование и схему Robin Hood при высокой загрузке таблицы:
+     * средние и максимальные длины проб при поиске существующих и отсутствующих ключей,
+     * а также время поиска промахов.
+     */
+    public static void testProbingComparison() {
+        System.out.println("\nСравнение линейного пробирования и Robin Hood (загрузка 90%):");
+        System.out.println("Схема       | Попадания (ср./макс.) | Промахи (ср./макс.) | Промахи (мс)");
+        System.out.println("-------------------------------------------------------------------------");
+
+        int capacity = 1 << 17;
+        int size = capacity * 9 / 10;
+        int searchIterations = 100_000;
+        Random rand = new Random(42);
+
+        // Ключи с перекосом: половина из узкого диапазона для образования кластеров
+        int[] keys = new int[size];
+        for (int j = 0; j < size; j++) {
+            keys[j] = j % 2 == 0 ? j : rand.nextInt(Integer.MAX_VALUE / 2);
+        }
+        int[] missKeys = new int[searchIterations];
+        for (int j = 0; j < searchIterations; j++) {
+            missKeys[j] = -1 - rand.nextInt(Integer.MAX_VALUE / 2);
+        }
+
+        for (HashTable.ProbingMode mode : HashTable.ProbingMode.values()) {
+            HashTable<Integer> table = new HashTable<>(capacity, key -> key, mode);
+            for (int key : keys) {
+                table.putIfAbsent(new DataItem<>(key));
+            }
+
+            // Попадания
+            table.resetStats();
+            for (int j = 0; j < searchIterations; j++) {
+                table.find(keys[rand.nextInt(size)]);
+            }
+            HashTable.Stats hits = table.getStats();
+
+            // Промахи
+            table.resetStats();
+            long startTime = System.nanoTime();
+            for (int key : missKeys) {
+                table.find(key);
+            }
+            long durationMs = (System.nanoTime() - startTime) / 1_000_000;
+            HashTable.Stats misses = table.getStats();
+
+            System.out.printf("%-11s | %10.2f / %-8d | %9.2f / %-7d | %8d%n", mode,
+                    hits.averageProbeLength(), hits.maxProbeLength,
+                    misses.averageProbeLength(), misses.maxProbeLength, durationMs);
+        }
+    }
+
     /**
      * Создает график зависимости времени поиска от размера таблицы
      * @param times массив времени выполнения для каждого размера таблицы
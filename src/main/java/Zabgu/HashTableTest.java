@@ -1,5 +1,8 @@
 package Zabgu;
 
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+
 /**
  * Класс для модульного тестирования функциональности хеш-таблицы.
  * Содержит тесты основных операций и итератора.
@@ -12,6 +15,11 @@ public class HashTableTest {
         System.out.println("\nЗапуск тестов....");
         testTableOperations();
         testIterator();
+        testAutoGrow();
+        testPrimitiveTables();
+        testRobinHood();
+        testUpsert();
+        testIteratorRemove();
     }
 
     /**
@@ -37,10 +45,24 @@ public class HashTableTest {
         assert table.find(5) == null : "Элемент 5 должен быть удален";
         assert table.find(15) != null : "Элемент 15 должен остаться после удаления 5";
 
+        // Тест счетчиков
+        assert table.tableSize() == 1 : "Размер таблицы должен быть 1";
+        assert table.getDeletedCount() == 1 : "Должен учитываться один удаленный элемент";
+        assert table.getStats().maxProbeLength >= 2 : "Коллизия должна увеличивать длину проб";
+
         // Тест очистки
         table.clear();
         assert table.find(15) == null : "Таблица должна быть пустой после clear()";
         assert table.tableSize() == 0 : "Размер таблицы должен быть 0 после очистки";
+        assert table.getDeletedCount() == 0 : "Удаленные элементы должны сбрасываться при очистке";
+
+        // Тест отрицательных хеш-кодов
+        HashTable<Integer> negative = new HashTable<>(10, key -> key * 31);
+        negative.insert(new DataItem<>(-7));
+        negative.insert(new DataItem<>(Integer.MAX_VALUE));
+        assert negative.find(-7) != null : "Ключ с отрицательным хешем должен быть найден";
+        assert negative.find(Integer.MAX_VALUE) != null : "Ключ с переполнением хеша должен быть найден";
+        assert negative.getArraySize() == 16 : "Размер таблицы должен округляться до степени двойки";
 
         System.out.println("Тестирование HashTable.....Завершено.");
     }
@@ -74,4 +96,168 @@ public class HashTableTest {
 
         System.out.println("Тестирование HashTableIterator.....Завершено.");
     }
+
+    /**
+     * Тестирует режим автоматического роста:
+     * - Увеличение размера при превышении коэффициента загрузки
+     * - Сохранение всех элементов после перестроения
+     * - Очистку удаленных элементов при перестроении
+     */
+    private static void testAutoGrow() {
+        HashTable<Integer> table = new HashTable<>(4, key -> key, 0.75f);
+        for (int i = 0; i < 100; i++) {
+            table.insert(new DataItem<>(i));
+        }
+        assert table.getArraySize() >= 128 : "Таблица должна вырасти до степени двойки";
+        assert table.tableSize() == 100 : "Все элементы должны сохраниться после роста";
+        for (int i = 0; i < 100; i++) {
+            assert table.find(i) != null : "Элемент " + i + " должен быть найден после роста";
+        }
+
+        // Многократные вставки и удаления не должны переполнять таблицу удаленными элементами
+        int size = table.getArraySize();
+        for (int i = 100; i < 10_000; i++) {
+            table.insert(new DataItem<>(i));
+            table.delete(i);
+        }
+        assert table.getArraySize() <= size * 2 : "Удаленные элементы не должны вызывать неограниченный рост";
+        assert table.tableSize() == 100 : "Количество элементов должно остаться прежним";
+
+        System.out.println("Тестирование роста HashTable.....Завершено.");
+    }
+
+    /**
+     * Тестирует примитивные таблицы IntHashTable и LongHashTable:
+     * - Вставку, поиск и удаление ключей
+     * - Отказ от повторной вставки существующего ключа
+     * - Ключи, совпадающие со служебными маркерами (0 и MIN_VALUE)
+     */
+    private static void testPrimitiveTables() {
+        IntHashTable ints = new IntHashTable(4, key -> key);
+        for (int i = -500; i < 500; i++) {
+            assert ints.insert(i) : "Ключ " + i + " должен быть добавлен";
+        }
+        assert !ints.insert(7) : "Повторная вставка не должна добавлять ключ";
+        assert ints.insert(Integer.MIN_VALUE) : "Ключ MIN_VALUE должен быть добавлен";
+        assert ints.tableSize() == 1001 : "Размер IntHashTable должен быть 1001";
+        assert ints.contains(0) && ints.contains(Integer.MIN_VALUE) : "Служебные значения должны храниться как ключи";
+        assert ints.delete(0) && !ints.contains(0) : "Ключ 0 должен удаляться";
+        assert ints.delete(-500) && !ints.contains(-500) : "Ключ -500 должен удаляться";
+        assert ints.contains(499) : "Остальные ключи должны сохраниться";
+
+        LongHashTable longs = new LongHashTable(4, key -> Long.hashCode(key));
+        for (long i = 0; i < 1000; i++) {
+            longs.insert(i << 32);
+        }
+        assert longs.tableSize() == 1000 : "Размер LongHashTable должен быть 1000";
+        assert longs.contains(999L << 32) : "Ключ должен быть найден";
+        assert !longs.contains(999L) : "Отсутствующий ключ не должен находиться";
+        longs.clear();
+        assert longs.tableSize() == 0 && !longs.contains(0L) : "Таблица должна быть пустой после clear()";
+
+        System.out.println("Тестирование IntHashTable и LongHashTable.....Завершено.");
+    }
+
+    /**
+     * Тестирует режим Robin Hood:
+     * - Поиск после вставок с коллизиями
+     * - Удаление обратным сдвигом без маркеров удаленных элементов
+     * - Рост таблицы в этом режиме
+     */
+    private static void testRobinHood() {
+        HashTable<Integer> table = new HashTable<>(16, key -> key % 4, HashTable.ProbingMode.ROBIN_HOOD);
+        for (int i = 0; i < 12; i++) {
+            table.insert(new DataItem<>(i));
+        }
+        for (int i = 0; i < 12; i += 2) {
+            assert table.delete(i) != null : "Элемент " + i + " должен быть удален";
+        }
+        for (int i = 0; i < 12; i++) {
+            assert (table.find(i) != null) == (i % 2 == 1) : "Неверный результат поиска для " + i;
+        }
+        assert table.getDeletedCount() == 0 : "Robin Hood не должен оставлять удаленные элементы";
+        assert table.tableSize() == 6 : "Размер таблицы должен быть 6";
+
+        HashTable<Integer> growing = new HashTable<>(4, key -> key, 0.9f, HashTable.ProbingMode.ROBIN_HOOD);
+        for (int i = 0; i < 1000; i++) {
+            growing.insert(new DataItem<>(i * 7));
+        }
+        int count = 0;
+        for (DataItem<Integer> item : growing) {
+            assert item.getKey() % 7 == 0 : "Итератор должен возвращать только вставленные элементы";
+            count++;
+        }
+        assert count == 1000 : "Итератор должен найти 1000 элементов";
+
+        System.out.println("Тестирование Robin Hood.....Завершено.");
+    }
+
+    /**
+     * Тестирует операции insertOrReplace и putIfAbsent в обеих схемах пробирования:
+     * - Отсутствие дубликатов при повторной вставке
+     * - Замену существующего элемента
+     * - Повторное использование ячеек удаленных элементов
+     */
+    private static void testUpsert() {
+        for (HashTable.ProbingMode mode : HashTable.ProbingMode.values()) {
+            HashTable<Integer> table = new HashTable<>(10, key -> key % 10, mode);
+            DataItem<Integer> first = new DataItem<>(5);
+            assert table.putIfAbsent(first) == null : "Новый ключ должен быть вставлен";
+            assert table.putIfAbsent(new DataItem<>(5)) == first : "Должен вернуться существующий элемент";
+            assert table.tableSize() == 1 : "Дубликаты не должны добавляться";
+
+            DataItem<Integer> second = new DataItem<>(5);
+            assert table.insertOrReplace(second) == first : "Должен вернуться замененный элемент";
+            assert table.find(5) == second : "Элемент должен быть заменен";
+
+            table.insertOrReplace(new DataItem<>(15));
+            table.delete(5);
+            table.putIfAbsent(new DataItem<>(25));
+            assert table.getDeletedCount() == 0 : "Ячейка удаленного элемента должна использоваться повторно";
+            assert table.find(15) != null && table.find(25) != null : "Элементы должны находиться после вставки";
+            assert table.tableSize() == 2 : "Размер таблицы должен быть 2";
+        }
+
+        System.out.println("Тестирование insertOrReplace/putIfAbsent.....Завершено.");
+    }
+
+    /**
+     * Тестирует удаление через итератор в обеих схемах пробирования:
+     * - Удаление элементов за один проход без пропусков и повторов
+     * - ConcurrentModificationException при изменении таблицы в обход итератора
+     */
+    private static void testIteratorRemove() {
+        for (HashTable.ProbingMode mode : HashTable.ProbingMode.values()) {
+            HashTable<Integer> table = new HashTable<>(8, key -> key % 8, 0.75f, mode);
+            for (int i = 0; i < 100; i++) {
+                table.insert(new DataItem<>(i));
+            }
+            int visited = 0;
+            Iterator<DataItem<Integer>> it = table.iterator();
+            while (it.hasNext()) {
+                if (it.next().getKey() % 3 == 0) {
+                    it.remove();
+                }
+                visited++;
+            }
+            assert visited == 100 : "Каждый элемент должен быть пройден ровно один раз (" + mode + ")";
+            assert table.tableSize() == 66 : "Должны остаться 66 элементов (" + mode + ")";
+            for (int i = 0; i < 100; i++) {
+                assert (table.find(i) != null) == (i % 3 != 0) : "Неверный результат поиска для " + i;
+            }
+
+            Iterator<DataItem<Integer>> stale = table.iterator();
+            stale.next();
+            table.insert(new DataItem<>(1000));
+            boolean exceptionThrown = false;
+            try {
+                stale.next();
+            } catch (ConcurrentModificationException e) {
+                exceptionThrown = true;
+            }
+            assert exceptionThrown : "Итератор должен обнаруживать изменение таблицы";
+        }
+
+        System.out.println("Тестирование удаления через итератор.....Завершено.");
+    }
 }
@@ -0,0 +1,81 @@
+package Zabgu;
+
+/**
+ * Общие операции линейного пробирования для словарей на параллельных массивах
+ * (FlatDictionary, StringIntDictionary). Работают только с массивом ключей
+ * (null - пустая ячейка) и массивом закешированных хешей; массивы значений у словарей
+ * разного типа, поэтому элементы переносят сами словари по найденным здесь индексам.
+ * Размер массивов - степень двойки, хотя бы одна ячейка всегда пуста.
+ */
+final class LinearProbing {
+
+    private LinearProbing() {
+    }
+
+    /**
+     * Ищет ключ, начиная с его исходной ячейки. Хеши сравниваются до вызова equals().
+     * @param keys массив ключей
+     * @param hashes закешированные хеши ключей
+     * @param key искомый ключ (не null)
+     * @param hash перемешанный хеш ключа
+     * @return индекс ячейки с ключом, а если ключа нет - (-(индекс первой пустой ячейки) - 1),
+     *         как в Arrays.binarySearch()
+     */
+    static int find(Object[] keys, int[] hashes, Object key, int hash) {
+        int mask = keys.length - 1;
+        int index = hash & mask;
+
+        while (keys[index] != null) {
+            if (hashes[index] == hash && keys[index].equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -index - 1;
+    }
+
+    /**
+     * Находит первую пустую ячейку, начиная с исходной ячейки хеша
+     * (для перестроения, когда ключи заведомо различны).
+     * @param keys массив ключей
+     * @param hash перемешанный хеш ключа
+     * @return индекс пустой ячейки
+     */
+    static int freeSlot(Object[] keys, int hash) {
+        int mask = keys.length - 1;
+        int index = hash & mask;
+        while (keys[index] != null) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Один шаг удаления обратным сдвигом: ищет после освобожденной ячейки hole элемент
+     * того же кластера, для которого hole лежит на пути от его исходной ячейки.
+     * Словарь переносит этот элемент в hole и повторяет шаг для его бывшей ячейки,
+     * пока метод не вернет -1; тогда ячейка hole очищается.
+     * @param keys массив ключей
+     * @param hashes закешированные хеши ключей
+     * @param hole индекс освобожденной ячейки
+     * @return индекс элемента для переноса в hole или -1, если кластер закончился
+     */
+    static int nextToShift(Object[] keys, int[] hashes, int hole) {
+        int mask = keys.length - 1;
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == null) {
+                return -1;
+            }
+            int home = hashes[next] & mask;
+            // Элемент можно сдвинуть, если его исходная ячейка не лежит в (hole, next]
+            boolean movable = (hole <= next)
+                    ? (home <= hole || home > next)
+                    : (home <= hole && home > next);
+            if (movable) {
+                return next;
+            }
+        }
+    }
+}
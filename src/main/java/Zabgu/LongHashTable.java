@@ -0,0 +1,227 @@
+package Zabgu;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Хеш-таблица (множество) длинных целых чисел long с открытой адресацией (линейное пробирование).
+ * В отличие от HashTable&lt;Long&gt;, ключи хранятся в плоском массиве long[] без
+ * обертки DataItem и упаковки в Long, а хеш-функция работает с примитивами,
+ * поэтому операции поиска не выделяют память.
+ * Пустые и удаленные ячейки обозначаются специальными значениями (EMPTY и DELETED);
+ * сами эти значения как ключи хранятся в отдельных флагах.
+ * Таблица автоматически растет при превышении коэффициента загрузки.
+ */
+public class LongHashTable {
+    private static final long EMPTY = 0L;                   // Маркер пустой ячейки
+    private static final long DELETED = Long.MIN_VALUE;    // Маркер удаленной ячейки
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f; // Коэффициент загрузки по умолчанию
+
+    private long[] keys;                            // Массив ключей
+    private int mask;                               // Маска индекса (размер массива - 1)
+    private final float loadFactor;                 // Предельный коэффициент загрузки
+    private final LongToIntFunction hashFunction;   // Функция для вычисления хеша
+    private int count;                              // Количество ключей в массиве
+    private int deletedCount;                       // Количество удаленных ячеек
+    private boolean containsEmptyKey;               // Содержится ли ключ, равный EMPTY
+    private boolean containsDeletedKey;             // Содержится ли ключ, равный DELETED
+
+    /**
+     * Создает новую таблицу с коэффициентом загрузки по умолчанию.
+     * @param size начальный размер таблицы (округляется до степени двойки)
+     * @param hashFunction функция для вычисления хеш-кода
+     */
+    public LongHashTable(int size, LongToIntFunction hashFunction) {
+        this(size, hashFunction, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Создает новую таблицу.
+     * @param size начальный размер таблицы (округляется до степени двойки)
+     * @param hashFunction функция для вычисления хеш-кода
+     * @param loadFactor предельная доля занятых ячеек (вместе с удаленными), от 0 до 1
+     * @throws IllegalArgumentException если коэффициент загрузки вне интервала (0, 1)
+     */
+    public LongHashTable(int size, LongToIntFunction hashFunction, float loadFactor) {
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Коэффициент загрузки должен быть в интервале (0, 1)");
+        }
+        int capacity = 2;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+        this.loadFactor = loadFactor;
+        this.hashFunction = hashFunction;
+    }
+
+    /**
+     * Проверяет наличие ключа в таблице.
+     * @param key искомый ключ
+     * @return true если ключ найден, иначе false
+     */
+    public boolean contains(long key) {
+        if (key == EMPTY) return containsEmptyKey;
+        if (key == DELETED) return containsDeletedKey;
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Вставка ключа в таблицу. Повторная вставка существующего ключа ничего не меняет.
+     * @param key ключ для вставки
+     * @return true если ключ добавлен, false если он уже присутствовал
+     */
+    public boolean insert(long key) {
+        if (key == EMPTY) {
+            if (containsEmptyKey) return false;
+            return containsEmptyKey = true;
+        }
+        if (key == DELETED) {
+            if (containsDeletedKey) return false;
+            return containsDeletedKey = true;
+        }
+        if (count + deletedCount + 1 > keys.length * loadFactor) {
+            rehash();
+        }
+
+        int index = hashFunc(key);
+        int freeSlot = -1;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return false;
+            }
+            if (keys[index] == DELETED && freeSlot < 0) {
+                freeSlot = index;
+            }
+            index = (index + 1) & mask;
+        }
+        if (freeSlot >= 0) {
+            index = freeSlot;
+            deletedCount--;
+        }
+        keys[index] = key;
+        count++;
+        return true;
+    }
+
+    /**
+     * Удаление ключа из таблицы.
+     * @param key ключ для удаления
+     * @return true если ключ был удален, false если он отсутствовал
+     */
+    public boolean delete(long key) {
+        if (key == EMPTY) {
+            boolean removed = containsEmptyKey;
+            containsEmptyKey = false;
+            return removed;
+        }
+        if (key == DELETED) {
+            boolean removed = containsDeletedKey;
+            containsDeletedKey = false;
+            return removed;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        keys[index] = DELETED;
+        count--;
+        deletedCount++;
+        return true;
+    }
+
+    /**
+     * Очистка таблицы.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        count = 0;
+        deletedCount = 0;
+        containsEmptyKey = false;
+        containsDeletedKey = false;
+    }
+
+    /**
+     * Возвращает количество ключей в таблице.
+     * @return количество ключей
+     */
+    public int tableSize() {
+        return count + (containsEmptyKey ? 1 : 0) + (containsDeletedKey ? 1 : 0);
+    }
+
+    /**
+     * Возвращает размер внутреннего массива.
+     * @return размер массива
+     */
+    public int getArraySize() {
+        return keys.length;
+    }
+
+    /**
+     * Выполняет действие для каждого ключа таблицы без упаковки в Long.
+     * @param action действие над ключом
+     */
+    public void forEach(LongConsumer action) {
+        if (containsEmptyKey) action.accept(EMPTY);
+        if (containsDeletedKey) action.accept(DELETED);
+        for (long key : keys) {
+            if (key != EMPTY && key != DELETED) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Ищет индекс ключа в массиве.
+     * @param key искомый ключ (не EMPTY и не DELETED)
+     * @return индекс ячейки или -1, если ключ не найден
+     */
+    private int indexOf(long key) {
+        int index = hashFunc(key);
+        int startIndex = index;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+            if (index == startIndex) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Перестраивает таблицу, отбрасывая удаленные ячейки.
+     * Размер удваивается, если ключей больше половины допустимой загрузки.
+     */
+    private void rehash() {
+        long[] oldKeys = keys;
+        int newSize = (count + 1 > keys.length * loadFactor / 2) ? keys.length * 2 : keys.length;
+
+        keys = new long[newSize];
+        mask = newSize - 1;
+        deletedCount = 0;
+
+        for (long key : oldKeys) {
+            if (key != EMPTY && key != DELETED) {
+                int index = hashFunc(key);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+    }
+
+    /**
+     * Вычисляет начальный индекс для ключа (с перемешиванием битов хеш-кода).
+     * @param key ключ для хеширования
+     * @return индекс в массиве
+     */
+    private int hashFunc(long key) {
+        return HashTable.spread(hashFunction.applyAsInt(key)) & mask;
+    }
+}
@@ -94,6 +94,8 @@ public class Main {
                 System.out.println("Бинарное дерево поиска, количество узлов: " + tree.size());
 
                 // 11. Эффективность тестирования при поиске
+                BinSTreePerformanceTest.testSortedInsert();
+                BinSTreePerformanceTest.testIterationPerformance();
                 BinSTreePerformanceTest.testSearchPerformance();
 
                 // 12. Тесты
@@ -116,6 +118,7 @@ public class Main {
                 System.out.println("После добавления:");
                 Table.displayTable();
                 System.out.println("Размер таблицы: " + Table.tableSize());
+                System.out.println("Статистика: " + Table.getStats());
 
                 // 2. Поиск значения в таблице
                 System.out.println("Поиск 15: " + (Table.find(15) != null ? "Найден" : "Не найден"));
@@ -145,6 +148,7 @@ public class Main {
 
                 // 5. Эффективность тестирования при поиске
                 HashTablePerformanceTest.testSearchPerformance();
+                HashTablePerformanceTest.testProbingComparison();
 
                 // 12. Тесты
                 HashTableTest.startTest();
@@ -185,13 +189,17 @@ public class Main {
 
                 // Оценка среднего времени поиска
                 AVLTreePerformanceTest.testSearchPerformance();
+                AVLTreePerformanceTest.testComparisonsPerOperation();
+                AVLTreePerformanceTest.testBulkBuild();
+                AVLTreePerformanceTest.testSnapshots();
+                AVLTreePerformanceTest.testSetOperations();
 
                 // Тесты
                 AVLTreeTests.runAllTests();
 
                 // Использование итератора
                 System.out.println("\nИтерация по элементам:");
-                Iterator<Integer> iterator = new BinSTreeIterator<>(avlTree.getRoot());
+                Iterator<Integer> iterator = avlTree.iterator();
                 while (iterator.hasNext()) {
                     System.out.print(iterator.next() + " ");
                 }
@@ -251,6 +259,10 @@ public class Main {
 
                 // Тестирование производительности поиска
                 DictionaryPerformanceTest.testSearchPerformance();
+                DictionaryPerformanceTest.testBulkLoad();
+                DictionaryPerformanceTest.testStringKeyLookup();
+                DictionaryPerformanceTest.testPutLatency();
+                DictionaryPerformanceTest.testConcurrentReadThroughput();
 
                 DictionaryTests.runAllTests();
 
@@ -0,0 +1,371 @@
+package Zabgu;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Неизменяемое (персистентное) AVL-дерево с копированием пути.
+ * Операции insert() и delete() не меняют дерево, а возвращают его новую версию:
+ * копируются только узлы на пути от корня до места изменения (и узлы поворотов),
+ * все остальные узлы разделяются между версиями. Поэтому обновление требует
+ * O(log n) времени и памяти, а снимок дерева получается за O(1) - это сама версия.
+ * Все поля узлов final, поэтому версию, опубликованную через volatile-поле или
+ * AtomicReference, читатели обходят без блокировок, пока писатель строит следующую.
+ *
+ * @param <T> тип элементов дерева, должен реализовывать Comparable<T>
+ */
+final class PersistentAVLTree<T extends Comparable<T>> implements Iterable<T> {
+
+    /**
+     * Неизменяемый узел дерева: ключ, высота и размер поддерева и ссылки на потомков.
+     */
+    static final class Node<T> {
+        final T key;
+        final Node<T> left, right;
+        final int height;
+        final int size;             // Количество узлов в поддереве
+
+        /**
+         * Создает узел и вычисляет его высоту и размер по потомкам.
+         * @param key значение ключа узла
+         * @param left левый потомок
+         * @param right правый потомок
+         */
+        Node(T key, Node<T> left, Node<T> right) {
+            this.key = key;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+        }
+    }
+
+    private final Node<T> root;                         // Корень версии
+    private final Comparator<? super T> comparator;     // Порядок ключей (null - естественный порядок)
+
+    /**
+     * Создает пустое дерево с естественным порядком ключей.
+     */
+    public PersistentAVLTree() {
+        this(null, null);
+    }
+
+    /**
+     * Создает пустое дерево с заданным порядком ключей.
+     * @param comparator функция сравнения ключей (null - естественный порядок compareTo())
+     */
+    public PersistentAVLTree(Comparator<? super T> comparator) {
+        this(null, comparator);
+    }
+
+    /**
+     * Создает версию дерева с указанным корнем.
+     * @param root корень версии
+     * @param comparator функция сравнения ключей
+     */
+    private PersistentAVLTree(Node<T> root, Comparator<? super T> comparator) {
+        this.root = root;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Возвращает версию дерева с добавленным ключом. Текущая версия не меняется.
+     * @param key ключ для вставки
+     * @return новая версия или эта же, если ключ уже присутствует
+     */
+    public PersistentAVLTree<T> insert(T key) {
+        Node<T> newRoot = insert(root, key);
+        return (newRoot == root) ? this : new PersistentAVLTree<>(newRoot, comparator);
+    }
+
+    /**
+     * Возвращает версию дерева без указанного ключа. Текущая версия не меняется.
+     * @param key ключ для удаления
+     * @return новая версия или эта же, если ключ не найден
+     */
+    public PersistentAVLTree<T> delete(T key) {
+        Node<T> newRoot = delete(root, key);
+        return (newRoot == root) ? this : new PersistentAVLTree<>(newRoot, comparator);
+    }
+
+    /**
+     * Рекурсивно вставляет ключ, копируя узлы на пути. Глубина рекурсии - O(log n).
+     * @param node корень поддерева
+     * @param key ключ для вставки
+     * @return корень нового поддерева или node, если ключ уже присутствует
+     */
+    private Node<T> insert(Node<T> node, T key) {
+        if (node == null) {
+            return new Node<>(key, null, null);
+        }
+        int cmp = compare(key, node.key);
+        if (cmp < 0) {
+            Node<T> left = insert(node.left, key);
+            return (left == node.left) ? node : balance(node.key, left, node.right);
+        } else if (cmp > 0) {
+            Node<T> right = insert(node.right, key);
+            return (right == node.right) ? node : balance(node.key, node.left, right);
+        }
+        return node;                                    // Дубликаты не допускаются
+    }
+
+    /**
+     * Рекурсивно удаляет ключ, копируя узлы на пути.
+     * Узел с двумя потомками заменяется копией с ключом преемника.
+     * @param node корень поддерева
+     * @param key ключ для удаления
+     * @return корень нового поддерева или node, если ключ не найден
+     */
+    private Node<T> delete(Node<T> node, T key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(key, node.key);
+        if (cmp < 0) {
+            Node<T> left = delete(node.left, key);
+            return (left == node.left) ? node : balance(node.key, left, node.right);
+        } else if (cmp > 0) {
+            Node<T> right = delete(node.right, key);
+            return (right == node.right) ? node : balance(node.key, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<T> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, node.left, deleteMin(node.right));
+    }
+
+    /**
+     * Удаляет минимальный узел поддерева, копируя узлы на пути.
+     * @param node корень непустого поддерева
+     * @return корень нового поддерева
+     */
+    private Node<T> deleteMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.key, deleteMin(node.left), node.right);
+    }
+
+    /**
+     * Создает узел с заданными ключом и потомками, выполняя при необходимости поворот.
+     * Высоты потомков отличаются не больше чем на 2, поэтому достаточно одного
+     * одинарного или двойного поворота; повороты тоже создают новые узлы.
+     * @param key ключ узла
+     * @param left левый потомок
+     * @param right правый потомок
+     * @return корень сбалансированного поддерева
+     */
+    private Node<T> balance(T key, Node<T> left, Node<T> right) {
+        int balance = height(left) - height(right);
+
+        if (balance > 1) {
+            if (height(left.left) >= height(left.right)) {
+                // Left Left Case
+                return new Node<>(left.key, left.left, new Node<>(key, left.right, right));
+            }
+            // Left Right Case
+            Node<T> pivot = left.right;
+            return new Node<>(pivot.key,
+                    new Node<>(left.key, left.left, pivot.left),
+                    new Node<>(key, pivot.right, right));
+        }
+
+        if (balance < -1) {
+            if (height(right.right) >= height(right.left)) {
+                // Right Right Case
+                return new Node<>(right.key, new Node<>(key, left, right.left), right.right);
+            }
+            // Right Left Case
+            Node<T> pivot = right.left;
+            return new Node<>(pivot.key,
+                    new Node<>(key, left, pivot.left),
+                    new Node<>(right.key, pivot.right, right.right));
+        }
+        return new Node<>(key, left, right);
+    }
+
+    /**
+     * Проверяет наличие ключа в дереве.
+     * @param key искомый ключ
+     * @return true если ключ найден, иначе false
+     */
+    public boolean contains(T key) {
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает количество ключей в дереве.
+     * @return размер дерева (0 для пустого дерева)
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Проверяет, пусто ли дерево.
+     * @return true если дерево не содержит ключей
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Возвращает высоту дерева.
+     * @return высота дерева (0 для пустого дерева)
+     */
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * Возвращает k-й по возрастанию ключ (нумерация с нуля).
+     * @param k порядковый номер ключа
+     * @return ключ, перед которым в дереве ровно k меньших ключей
+     * @throws IndexOutOfBoundsException если k вне диапазона [0, size())
+     */
+    public T select(int k) {
+        if (k < 0 || k >= size(root)) {
+            throw new IndexOutOfBoundsException("Индекс " + k + " вне диапазона [0, " + size(root) + ")");
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (k < leftSize) {
+                node = node.left;
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество ключей дерева, меньших заданного.
+     * @param key ключ
+     * @return количество меньших ключей
+     */
+    public int rank(T key) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Возвращает итератор по ключам версии в порядке возрастания.
+     * Версия неизменяема, поэтому итератор не может устареть и не поддерживает remove().
+     * @return итератор элементов дерева
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new InOrderIterator();
+    }
+
+    /**
+     * In-order итератор с явным стеком, глубина которого не превышает высоту дерева.
+     */
+    private class InOrderIterator implements Iterator<T> {
+        private final Deque<Node<T>> stack = new ArrayDeque<>(height(root) + 1);
+
+        /**
+         * Создает итератор и спускается к минимальному ключу.
+         */
+        InOrderIterator() {
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<T> node = stack.pop();
+            pushLeft(node.right);
+            return node.key;
+        }
+
+        /**
+         * Кладет в стек узел и всех его левых потомков.
+         * @param node корень поддерева
+         */
+        private void pushLeft(Node<T> node) {
+            for (; node != null; node = node.left) {
+                stack.push(node);
+            }
+        }
+    }
+
+    /**
+     * Возвращает корневой узел версии (для проверки разделения узлов между версиями).
+     * @return корневой узел или null
+     */
+    Node<T> getRoot() {
+        return root;
+    }
+
+    /**
+     * Сравнивает два ключа в порядке дерева.
+     * @param a первый ключ
+     * @param b второй ключ
+     * @return отрицательное число, ноль или положительное число, если a меньше, равен или больше b
+     */
+    private int compare(T a, T b) {
+        return (comparator == null) ? a.compareTo(b) : comparator.compare(a, b);
+    }
+
+    /**
+     * Возвращает высоту узла.
+     * @param node узел для проверки
+     * @return высота узла (0 для null)
+     */
+    private static int height(Node<?> node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    /**
+     * Возвращает размер поддерева.
+     * @param node корень поддерева
+     * @return количество узлов (0 для null)
+     */
+    private static int size(Node<?> node) {
+        return (node == null) ? 0 : node.size;
+    }
+}
@@ -0,0 +1,215 @@
+package Zabgu;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Словарь со строковыми ключами и значениями int, специализированный для самого частого
+ * случая Dictionary&lt;String, Integer&gt;. Ключи, значения и закешированные хеши хранятся
+ * в параллельных массивах String[], int[] и int[] с линейным пробированием (как в FlatDictionary),
+ * поэтому значения не упаковываются в Integer, а для каждого элемента не создается объект Entry.
+ * При поиске сначала сравниваются хеши, и String.equals() вызывается только при их совпадении.
+ * Удаление выполняется обратным сдвигом. Пробирование и выбор сдвигаемых элементов
+ * общие с FlatDictionary (LinearProbing).
+ */
+public class StringIntDictionary {
+    private static final int DEFAULT_CAPACITY = 16;             // Начальная емкость таблицы по умолчанию
+    private static final float LOAD_FACTOR = 0.5f;              // Коэффициент загрузки
+    private static final int MAX_CAPACITY = 1 << 30;            // Максимальная емкость таблицы
+    private String[] keys;                                      // Ключи (null - пустая ячейка)
+    private int[] values;                                       // Значения
+    private int[] hashes;                                       // Закешированные хеши ключей
+    private int size;                                           // Текущее количество элементов
+
+    /**
+     * Конструктор создает пустой словарь с начальной емкостью по умолчанию.
+     */
+    public StringIntDictionary() {
+        this(0);
+    }
+
+    /**
+     * Конструктор создает пустой словарь, вмещающий expectedSize элементов без расширения.
+     * @param expectedSize ожидаемое количество элементов
+     * @throws IllegalArgumentException если expectedSize отрицателен или больше MAX_CAPACITY * LOAD_FACTOR
+     */
+    public StringIntDictionary(int expectedSize) {
+        if (expectedSize < 0 || expectedSize > MAX_CAPACITY * LOAD_FACTOR) {
+            throw new IllegalArgumentException("Ожидаемый размер вне диапазона [0, " + (int) (MAX_CAPACITY * LOAD_FACTOR) + "]: " + expectedSize);
+        }
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Добавляет или обновляет пару ключ-значение в словаре.
+     * @param key ключ для добавления/обновления
+     * @param value соответствующее значение
+     * @throws IllegalArgumentException если ключ равен null
+     * @throws IllegalStateException если таблица максимальной емкости заполнена
+     */
+    public void put(String key, int value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Ключ не может быть нулевым");
+        }
+        int hash = hash(key);
+        int index = LinearProbing.find(keys, hashes, key, hash);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        index = -index - 1;
+        // Одна ячейка всегда остается пустой, иначе поиск отсутствующего ключа не завершится
+        if (size == keys.length - 1) {
+            throw new IllegalStateException("Словарь заполнен: " + size + " элементов");
+        }
+        keys[index] = key;
+        values[index] = value;
+        hashes[index] = hash;
+        if (++size > keys.length * LOAD_FACTOR && keys.length < MAX_CAPACITY) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Возвращает значение по ключу.
+     * @param key ключ для поиска
+     * @param defaultValue значение, возвращаемое при отсутствии ключа
+     * @return найденное значение или defaultValue
+     */
+    public int getOrDefault(String key, int defaultValue) {
+        if (key == null) return defaultValue;
+        int index = indexOf(key);
+        return (index >= 0) ? values[index] : defaultValue;
+    }
+
+    /**
+     * Удаляет элемент по ключу.
+     * @param key ключ элемента для удаления
+     * @return true если элемент был удален, false если ключ не найден
+     */
+    public boolean remove(String key) {
+        if (key == null) return false;
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        shiftBackward(index);
+        size--;
+        return true;
+    }
+
+    /**
+     * Проверяет наличие ключа в словаре.
+     * @param key ключ для проверки
+     * @return true если ключ присутствует, иначе false
+     */
+    public boolean containsKey(String key) {
+        return key != null && indexOf(key) >= 0;
+    }
+
+    /**
+     * Возвращает текущее количество элементов в словаре.
+     * @return количество элементов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пуст ли словарь.
+     * @return true если словарь пуст, иначе false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Очищает словарь, сохраняя текущую емкость. Значения int не удерживают объекты,
+     * поэтому очищаются только ключи.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * Выполняет действие для каждой пары ключ-значение без упаковки значений в Integer.
+     * @param action действие над ключом и значением
+     */
+    public void forEach(ObjIntConsumer<String> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Ищет ячейку с ключом.
+     * @param key ключ (не null)
+     * @return индекс ячейки или -1, если ключ не найден
+     */
+    private int indexOf(String key) {
+        int index = LinearProbing.find(keys, hashes, key, hash(key));
+        return (index >= 0) ? index : -1;
+    }
+
+    /**
+     * Освобождает ячейку, сдвигая назад следующие элементы кластера
+     * (выбор элементов - LinearProbing.nextToShift()).
+     * @param index индекс освобождаемой ячейки
+     */
+    private void shiftBackward(int index) {
+        int next;
+        while ((next = LinearProbing.nextToShift(keys, hashes, index)) >= 0) {
+            keys[index] = keys[next];
+            values[index] = values[next];
+            hashes[index] = hashes[next];
+            index = next;
+        }
+        keys[index] = null;
+    }
+
+    /**
+     * Перестраивает массивы нового размера, используя закешированные хеши.
+     * @param newCapacity новый размер (степень двойки)
+     */
+    private void resize(int newCapacity) {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = LinearProbing.freeSlot(keys, oldHashes[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Создает пустые массивы заданного размера.
+     * @param capacity размер массивов
+     */
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        values = new int[capacity];
+        hashes = new int[capacity];
+    }
+
+    /**
+     * Вычисляет перемешанный хеш-код ключа.
+     * @param key ключ для хеширования
+     * @return хеш-код ключа
+     */
+    private int hash(String key) {
+        return HashTable.spread(key.hashCode());
+    }
+}
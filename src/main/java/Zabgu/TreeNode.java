@@ -3,12 +3,15 @@ package Zabgu;
 /**
  * Класс, представляющий узел бинарного дерева.
  * Каждый узел содержит значение и ссылки на левого и правого потомков.
+ * Поле count (размер поддерева) поддерживается методами экземпляра BinSTree;
+ * статические методы BinSTree его не используют.
  * @param <T> тип данных значения, хранящегося в узле.
  */
 public class TreeNode<T> {
     T value;
     TreeNode<T> left;
     TreeNode <T> right;
+    int count = 1;      // Количество узлов в поддереве с корнем в этом узле
 
     /**
      * Конструктор, создающий новый узел с заданным значением.